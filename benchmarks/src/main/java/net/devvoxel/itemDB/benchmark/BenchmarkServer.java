@@ -0,0 +1,120 @@
+package net.devvoxel.itemDB.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.Database;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.i18n.MessageManager;
+import net.devvoxel.itemDB.integration.ExternalItemProvider;
+import net.devvoxel.itemDB.managers.ItemManager;
+import net.devvoxel.itemDB.ui.ItemsGui;
+import net.devvoxel.itemDB.webhook.WebhookNotifier;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.PluginDescriptionFile;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A mocked server with an ItemDB instance wired like {@code onEnable()} does, minus licence check, commands
+ * and bStats, backed by an in-memory SQLite database.
+ */
+final class BenchmarkServer implements AutoCloseable {
+
+    final ServerMock server;
+    final ItemDB plugin;
+    final Database database;
+    final ItemManager items;
+    final ItemsGui gui;
+
+    private BenchmarkServer(ServerMock server, ItemDB plugin, Database database, ItemManager items, ItemsGui gui) {
+        this.server = server;
+        this.plugin = plugin;
+        this.database = database;
+        this.items = items;
+        this.gui = gui;
+    }
+
+    /** Starts a server whose database holds {@code catalog}; the item cache is loaded from it. */
+    static BenchmarkServer start(List<ItemRecord> catalog) throws Exception {
+        ServerMock server = MockBukkit.mock();
+        ItemDB plugin = loadPlugin(server, "ItemDBPremium");
+        FileConfiguration config = plugin.getConfig();
+        config.set("Database.Type", "sqlite");
+        config.set("Database.File", ":memory:");
+
+        Database database = new Database(plugin);
+        database.connect();
+        populate(database, catalog);
+
+        ItemManager items = wire(plugin, database);
+        return new BenchmarkServer(server, plugin, database, items, plugin.gui());
+    }
+
+    /**
+     * Loads (but does not enable) an ItemDB instance named {@code name}, with journal, circuit breaker and
+     * slow-log disabled so only the code paths under test run.
+     */
+    static ItemDB loadPlugin(ServerMock server, String name) {
+        PluginDescriptionFile description = new PluginDescriptionFile(name, "benchmark", ItemDB.class.getName());
+        ItemDB plugin = (ItemDB) server.getPluginManager().loadPlugin(ItemDB.class, description, new Object[0]);
+        plugin.saveResource("messages.yml", false);
+        FileConfiguration config = plugin.getConfig();
+        config.set("Database.OfflineJournal", false);
+        config.set("Database.CircuitBreaker", false);
+        config.set("Metrics.SlowLog.Enabled", false);
+        return plugin;
+    }
+
+    /** Creates the managers {@code onEnable()} would create on top of a connected database. */
+    static ItemManager wire(ItemDB plugin, Database database) throws ReflectiveOperationException {
+        MessageManager messages = new MessageManager(plugin);
+        WebhookNotifier webhooks = new WebhookNotifier(plugin);
+        ExternalItemProvider externalItems = new ExternalItemProvider(plugin);
+        inject(plugin, "database", database);
+        inject(plugin, "messageManager", messages);
+        inject(plugin, "webhookNotifier", webhooks);
+        inject(plugin, "externalItemProvider", externalItems);
+
+        ItemManager items = new ItemManager(plugin, database, webhooks, externalItems);
+        inject(plugin, "itemManager", items);
+        inject(plugin, "itemsGui", new ItemsGui(plugin));
+        return items;
+    }
+
+    // parallel einreichen, damit der SQLite-Writer wie im Betrieb mehrere Writes pro Transaktion bündelt
+    private static void populate(Database database, List<ItemRecord> catalog) {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture.allOf(catalog.stream()
+                    .map(record -> CompletableFuture.runAsync(() -> {
+                        try {
+                            database.saveItem(record, "benchmark", null);
+                        } catch (Exception ex) {
+                            throw new IllegalStateException("Failed to store " + record.key(), ex);
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // ItemDB hat keine Setter, die Felder setzt sonst nur onEnable()
+    private static void inject(ItemDB plugin, String field, Object value) throws ReflectiveOperationException {
+        Field target = ItemDB.class.getDeclaredField(field);
+        target.setAccessible(true);
+        target.set(plugin, value);
+    }
+
+    @Override
+    public void close() {
+        items.close();
+        database.close();
+        MockBukkit.unmock();
+    }
+}
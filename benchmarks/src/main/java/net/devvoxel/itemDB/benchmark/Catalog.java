@@ -0,0 +1,71 @@
+package net.devvoxel.itemDB.benchmark;
+
+import net.devvoxel.itemDB.data.ItemRecord;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic item catalog resembling what servers store: named tools, weapons and armour with a few lore
+ * lines, custom model data and enchantments. Generated from a fixed seed so every run sees the same items.
+ */
+final class Catalog {
+
+    static final long SEED = 0x17EDB;
+
+    private static final String[] CATEGORIES = {"weapons", "tools", "armor", "relics", "consumables"};
+    private static final String[] ADJECTIVES = {"Ancient", "Blazing", "Frozen", "Cursed", "Royal", "Shadow", "Storm", "Verdant"};
+    private static final String[] NOUNS = {"Blade", "Pickaxe", "Helm", "Charm", "Elixir", "Bow", "Axe", "Chestplate"};
+    private static final Material[] MATERIALS = {
+            Material.DIAMOND_SWORD, Material.NETHERITE_PICKAXE, Material.IRON_HELMET, Material.TOTEM_OF_UNDYING,
+            Material.POTION, Material.BOW, Material.GOLDEN_AXE, Material.NETHERITE_CHESTPLATE
+    };
+    private static final Enchantment[] ENCHANTMENTS = {
+            Enchantment.SHARPNESS, Enchantment.UNBREAKING, Enchantment.MENDING, Enchantment.EFFICIENCY,
+            Enchantment.FORTUNE, Enchantment.PROTECTION, Enchantment.FIRE_ASPECT, Enchantment.LOOTING
+    };
+
+    private Catalog() {
+    }
+
+    static List<ItemRecord> generate(int size) {
+        Random random = new Random(SEED);
+        List<ItemRecord> records = new ArrayList<>(size);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < size; i++) {
+            String key = CATEGORIES[i % CATEGORIES.length] + "_" + String.format("%06d", i);
+            records.add(ItemRecord.fromStack(key, item(random, i), timestamp + i, false));
+        }
+        return records;
+    }
+
+    static ItemStack item(Random random, int index) {
+        int kind = random.nextInt(MATERIALS.length);
+        ItemStack stack = new ItemStack(MATERIALS[kind]);
+        ItemMeta meta = stack.getItemMeta();
+        meta.setDisplayName("§6" + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[kind] + " #" + index);
+
+        int loreLines = 2 + random.nextInt(5);
+        List<String> lore = new ArrayList<>(loreLines);
+        for (int line = 0; line < loreLines; line++) {
+            lore.add("§7" + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " power, tier " + random.nextInt(10)
+                    + " §8(" + Long.toHexString(random.nextLong()) + ")");
+        }
+        meta.setLore(lore);
+
+        if (random.nextInt(4) != 0) {
+            meta.setCustomModelData(1000 + random.nextInt(500));
+        }
+        int enchantments = random.nextInt(4);
+        for (int e = 0; e < enchantments; e++) {
+            meta.addEnchant(ENCHANTMENTS[random.nextInt(ENCHANTMENTS.length)], 1 + random.nextInt(5), true);
+        }
+        stack.setItemMeta(meta);
+        return stack;
+    }
+}
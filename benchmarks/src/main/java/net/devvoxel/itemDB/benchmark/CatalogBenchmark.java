@@ -0,0 +1,75 @@
+package net.devvoxel.itemDB.benchmark;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.devvoxel.itemDB.data.ItemRecord;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * Paths whose cost grows with the catalog: loading and mapping all rows, sorted key listing, cache
+ * lookups and assembling a GUI page. One server with an in-memory SQLite database per size.
+ */
+@State(Scope.Benchmark)
+public class CatalogBenchmark extends BenchmarkDefaults {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkServer server;
+    private PlayerMock player;
+    private String[] keys;
+    private int pages;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<ItemRecord> catalog = Catalog.generate(catalogSize);
+        server = BenchmarkServer.start(catalog);
+        player = server.server.addPlayer();
+        keys = catalog.stream().map(ItemRecord::key).toArray(String[]::new);
+        pages = Math.max(1, (catalogSize + 27) / 28);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next(int bound) {
+            int index = next;
+            next = index + 1 >= bound ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public List<ItemRecord> loadAndMapRows() throws Exception {
+        return server.database.loadAllItems();
+    }
+
+    @Benchmark
+    public List<String> sortedKeys() {
+        return server.items.keys();
+    }
+
+    @Benchmark
+    public ItemStack cachedGet(Cursor cursor) {
+        return server.items.get(keys[cursor.next(keys.length)]);
+    }
+
+    @Benchmark
+    public void openGuiPage(Cursor cursor) {
+        server.gui.open(player, cursor.next(pages));
+    }
+}
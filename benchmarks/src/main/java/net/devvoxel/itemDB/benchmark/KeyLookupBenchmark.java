@@ -0,0 +1,64 @@
+package net.devvoxel.itemDB.benchmark;
+
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.managers.ItemManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Case-insensitive key lookups as done by shops and placeholders. {@code toLowerCase} is the previous
+ * {@code normalize}, kept as baseline; run with {@code -prof gc} to compare allocations per call.
+ */
+@State(Scope.Benchmark)
+public class KeyLookupBenchmark extends BenchmarkDefaults {
+
+    @Param({"lower", "mixed"})
+    public String keyCase;
+
+    private BenchmarkServer server;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<ItemRecord> catalog = Catalog.generate(10_000);
+        server = BenchmarkServer.start(catalog);
+        keys = catalog.stream()
+                .map(ItemRecord::key)
+                .map(key -> keyCase.equals("mixed") ? key.toUpperCase(Locale.ROOT) : key)
+                .toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public String toLowerCase(CatalogBenchmark.Cursor cursor) {
+        return keys[cursor.next(keys.length)].toLowerCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    public String normalize(CatalogBenchmark.Cursor cursor) {
+        return ItemManager.normalize(keys[cursor.next(keys.length)]);
+    }
+
+    @Benchmark
+    public boolean exists(CatalogBenchmark.Cursor cursor) {
+        return server.items.exists(keys[cursor.next(keys.length)]);
+    }
+
+    @Benchmark
+    public Optional<ItemRecord> record(CatalogBenchmark.Cursor cursor) {
+        return server.items.record(keys[cursor.next(keys.length)]);
+    }
+}
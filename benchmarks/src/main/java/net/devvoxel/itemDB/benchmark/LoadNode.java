@@ -0,0 +1,94 @@
+package net.devvoxel.itemDB.benchmark;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.Database;
+import net.devvoxel.itemDB.managers.ItemManager;
+import net.devvoxel.itemDB.metrics.LatencyHistogram;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * One simulated server: its own plugin instance, database connection pool, item cache and poll loop.
+ * All nodes of a run share one mocked Bukkit server and the same database.
+ */
+final class LoadNode implements AutoCloseable {
+
+    final int id;
+    final ItemDB plugin;
+    final Database database;
+    final ItemManager items;
+    final AtomicLong syncFailures = new AtomicLong();
+    private ScheduledFuture<?> syncTask;
+
+    private LoadNode(int id, ItemDB plugin, Database database, ItemManager items) {
+        this.id = id;
+        this.plugin = plugin;
+        this.database = database;
+        this.items = items;
+    }
+
+    static LoadNode start(ServerMock server, int id, Map<String, Object> config) throws Exception {
+        ItemDB plugin = BenchmarkServer.loadPlugin(server, "ItemDBNode" + id);
+        // Konflikte sind hier gewollt, sonst flutet das Log
+        plugin.getLogger().setLevel(Level.WARNING);
+        FileConfiguration cfg = plugin.getConfig();
+        config.forEach(cfg::set);
+
+        Database database = new Database(plugin);
+        database.connect();
+        return new LoadNode(id, plugin, database, BenchmarkServer.wire(plugin, database));
+    }
+
+    // versetzt starten, damit nicht alle Nodes gleichzeitig pollen
+    void startSync(ScheduledExecutorService scheduler, long intervalMillis, int nodes) {
+        long offset = intervalMillis * id / nodes;
+        syncTask = scheduler.scheduleWithFixedDelay(this::syncOnce, offset, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stopSync() {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+            syncTask = null;
+        }
+    }
+
+    int syncOnce() {
+        try {
+            return items.syncChanges();
+        } catch (SQLException ex) {
+            syncFailures.incrementAndGet();
+            return 0;
+        }
+    }
+
+    /** Calls of every database operation made by this node so far. */
+    Map<String, Long> databaseCalls() {
+        Map<String, Long> out = new TreeMap<>();
+        plugin.metrics().timerSnapshots().forEach((name, timer) -> {
+            if (name.startsWith("db.")) {
+                out.put(name.substring(3), timer.count());
+            }
+        });
+        return out;
+    }
+
+    LatencyHistogram propagationLag() {
+        return plugin.metrics().timer("sync.lag");
+    }
+
+    @Override
+    public void close() {
+        stopSync();
+        items.close();
+        database.close();
+    }
+}
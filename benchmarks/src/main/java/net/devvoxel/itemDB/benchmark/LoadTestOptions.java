@@ -0,0 +1,96 @@
+package net.devvoxel.itemDB.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line of {@link SyncLoadTest}: {@code --name value} pairs plus repeatable {@code --set Path=Value}
+ * overrides that are applied to every node's config.yml (e.g. {@code --set Database.Host=127.0.0.1}).
+ */
+record LoadTestOptions(
+        String backend,
+        int nodes,
+        int keys,
+        int hotKeys,
+        double hotShare,
+        int editors,
+        double writesPerSecond,
+        double renameShare,
+        int readsPerSecond,
+        long syncIntervalMillis,
+        long durationSeconds,
+        Map<String, Object> config
+) {
+
+    static final String USAGE = """
+            Usage: java -cp benchmarks.jar net.devvoxel.itemDB.benchmark.SyncLoadTest [options]
+              --backend sqlite|mysql|mongodb  storage shared by all nodes (default sqlite, temporary file)
+              --nodes N                       simulated servers (default 20)
+              --keys N                        items in the catalog (default 500)
+              --hot-keys N                    items that receive --hot-share of all edits (default 20)
+              --hot-share F                   (default 0.3)
+              --editors N                     concurrent editors, spread over the nodes (default 10)
+              --writes-per-second F           edits per second over all editors (default 20)
+              --rename-share F                share of edits that rename instead of adding a lore line (default 0.1)
+              --reads-per-second N            cache reads per second over all nodes (default 2000)
+              --sync-interval-ms N            poll interval of every node (default 1000)
+              --duration S                    length of the measured phase in seconds (default 60)
+              --set Path=Value                config.yml override for every node, repeatable
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, Object> config = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (!name.startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value at '" + name + "'");
+            }
+            String value = args[++i];
+            if (name.equals("--set")) {
+                int separator = value.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Expected Path=Value after --set, got '" + value + "'");
+                }
+                config.put(value.substring(0, separator), typed(value.substring(separator + 1)));
+            } else {
+                values.put(name.substring(2).toLowerCase(Locale.ROOT), value);
+            }
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                values.getOrDefault("backend", "sqlite").toLowerCase(Locale.ROOT),
+                Integer.parseInt(values.getOrDefault("nodes", "20")),
+                Integer.parseInt(values.getOrDefault("keys", "500")),
+                Integer.parseInt(values.getOrDefault("hot-keys", "20")),
+                Double.parseDouble(values.getOrDefault("hot-share", "0.3")),
+                Integer.parseInt(values.getOrDefault("editors", "10")),
+                Double.parseDouble(values.getOrDefault("writes-per-second", "20")),
+                Double.parseDouble(values.getOrDefault("rename-share", "0.1")),
+                Integer.parseInt(values.getOrDefault("reads-per-second", "2000")),
+                Long.parseLong(values.getOrDefault("sync-interval-ms", "1000")),
+                Long.parseLong(values.getOrDefault("duration", "60")),
+                config);
+        if (options.nodes < 1 || options.keys < 1 || options.editors < 0 || options.durationSeconds < 1) {
+            throw new IllegalArgumentException("nodes, keys and duration must be positive");
+        }
+        return options;
+    }
+
+    // getInt() & Co. lesen nur echte Zahlen, keine Strings
+    private static Object typed(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ignored) {
+        }
+        return value;
+    }
+}
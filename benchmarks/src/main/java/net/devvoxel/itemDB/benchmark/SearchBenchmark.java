@@ -0,0 +1,48 @@
+package net.devvoxel.itemDB.benchmark;
+
+import net.devvoxel.itemDB.data.ItemRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * {@code /db search} against an in-memory SQLite database, with a query matching one item, a few hundred
+ * and most of the catalog; with and without the custom model data filter.
+ */
+@State(Scope.Benchmark)
+public class SearchBenchmark extends BenchmarkDefaults {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"000042", "frozen blade", "tier 3"})
+    public String query;
+
+    private BenchmarkServer server;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkServer.start(Catalog.generate(catalogSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<ItemRecord> search() {
+        return server.items.search(query, null, 10);
+    }
+
+    @Benchmark
+    public List<ItemRecord> searchByModel() {
+        return server.items.search(query, 1200, 10);
+    }
+}
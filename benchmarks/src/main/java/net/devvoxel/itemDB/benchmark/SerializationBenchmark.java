@@ -0,0 +1,69 @@
+package net.devvoxel.itemDB.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.data.ItemSerializer;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * Encoding and decoding single items, cycling through a catalog so the JIT does not see the same stack
+ * every call. Cost per item does not depend on the catalog size, so one size is enough here.
+ */
+@State(Scope.Thread)
+public class SerializationBenchmark extends BenchmarkDefaults {
+
+    private static final int CATALOG_SIZE = 1_000;
+
+    private ItemStack[] stacks;
+    private String[] encoded;
+    private ItemRecord[] records;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        MockBukkit.mock();
+        List<ItemRecord> catalog = Catalog.generate(CATALOG_SIZE);
+        records = catalog.toArray(ItemRecord[]::new);
+        stacks = new ItemStack[records.length];
+        encoded = new String[records.length];
+        for (int i = 0; i < records.length; i++) {
+            stacks[i] = records[i].item();
+            encoded[i] = ItemSerializer.serialize(stacks[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == CATALOG_SIZE ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public String encode() throws Exception {
+        return ItemSerializer.serialize(stacks[nextIndex()]);
+    }
+
+    @Benchmark
+    public ItemStack decode() throws Exception {
+        return ItemSerializer.deserialize(encoded[nextIndex()]);
+    }
+
+    @Benchmark
+    public ItemRecord fromStack() {
+        int index = nextIndex();
+        return ItemRecord.fromStack(records[index].key(), stacks[index], records[index].updatedAt(), false);
+    }
+}
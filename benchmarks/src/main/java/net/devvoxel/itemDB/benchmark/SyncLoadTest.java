@@ -0,0 +1,303 @@
+package net.devvoxel.itemDB.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.managers.ItemManager;
+import net.devvoxel.itemDB.metrics.LatencyHistogram;
+import org.bukkit.ChatColor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs N simulated servers against one shared database while editors change items and players read
+ * them, then reports how fast and how completely the changes reached every server.
+ * <p>
+ * Editors append uniquely tagged lore lines (commutative, retried after conflicts) and occasionally rename
+ * items (not retried). After the run every acknowledged lore line must be stored exactly once and every
+ * node's cache must match the database; anything else is reported as lost, duplicated or stale.
+ */
+public final class SyncLoadTest {
+
+    private static final String TAG_PREFIX = "loadtest ";
+
+    private final LoadTestOptions options;
+    private final List<LoadNode> nodes = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Set<String>> acknowledged = new ConcurrentHashMap<>();
+    private final Set<String> attempted = ConcurrentHashMap.newKeySet();
+    private final Map<ItemManager.UpdateResult, LongAdder> results = new EnumMap<>(ItemManager.UpdateResult.class);
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder readMisses = new LongAdder();
+    private final AtomicLong tags = new AtomicLong();
+
+    private SyncLoadTest(LoadTestOptions options) {
+        this.options = options;
+        for (ItemManager.UpdateResult result : ItemManager.UpdateResult.values()) {
+            results.put(result, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new SyncLoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        ServerMock server = MockBukkit.mock();
+        try {
+            Map<String, Object> config = baseConfig();
+            long heapBefore = usedHeap();
+            startNodes(server, config);
+            long heapPerNode = Math.max(0L, usedHeap() - heapBefore) / nodes.size();
+
+            Map<String, Long> callsBefore = databaseCalls();
+            long startedAt = System.nanoTime();
+            runWorkload();
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            Map<String, Long> callsAfter = databaseCalls();
+
+            settle();
+            report(seconds, callsBefore, callsAfter, heapPerNode);
+        } finally {
+            nodes.forEach(LoadNode::close);
+            MockBukkit.unmock();
+        }
+        System.exit(0);
+    }
+
+    // eigene Tabelle/Collection pro Lauf, damit keine echten Daten berührt werden
+    private Map<String, Object> baseConfig() throws Exception {
+        Map<String, Object> config = new LinkedHashMap<>();
+        String table = "itemdb_loadtest_" + Long.toString(System.currentTimeMillis(), 36);
+        config.put("Database.Type", options.backend());
+        config.put("Database.Table", table);
+        config.put("Database.MongoCollectionPrefix", table + "_");
+        config.put("Database.MongoChangeStreams", false);
+        if (options.backend().equals("sqlite")) {
+            Path dir = Files.createTempDirectory("itemdb-loadtest");
+            config.put("Database.File", dir.resolve("shared.sqlite").toString());
+        }
+        config.putAll(options.config());
+        return config;
+    }
+
+    private void startNodes(ServerMock server, Map<String, Object> config) throws Exception {
+        LoadNode first = LoadNode.start(server, 0, config);
+        nodes.add(first);
+        Random random = new Random(Catalog.SEED);
+        for (int i = 0; i < options.keys(); i++) {
+            String key = String.format(Locale.ROOT, "load_%05d", i);
+            if (!first.items.add(key, Catalog.item(random, i), "loadtest")) {
+                throw new IllegalStateException("Could not seed item " + key);
+            }
+            keys.add(key);
+        }
+        // alle weiteren Nodes laden den fertigen Katalog wie ein frisch gestarteter Server
+        for (int id = 1; id < options.nodes(); id++) {
+            nodes.add(LoadNode.start(server, id, config));
+        }
+        System.out.printf(Locale.ROOT, "Started %d nodes on %s with %d items%n", nodes.size(), options.backend(), keys.size());
+    }
+
+    private void runWorkload() throws InterruptedException {
+        ScheduledExecutorService syncers = Executors.newScheduledThreadPool(Math.min(nodes.size(), 8));
+        ScheduledExecutorService clients = Executors.newScheduledThreadPool(Math.max(1, options.editors()) + 1);
+        nodes.forEach(node -> node.startSync(syncers, options.syncIntervalMillis(), nodes.size()));
+
+        if (options.editors() > 0 && options.writesPerSecond() > 0) {
+            long periodMicros = Math.max(1L, (long) (options.editors() * 1_000_000L / options.writesPerSecond()));
+            for (int editor = 0; editor < options.editors(); editor++) {
+                LoadNode node = nodes.get(editor % nodes.size());
+                String name = "editor" + editor;
+                clients.scheduleAtFixedRate(() -> edit(node, name), periodMicros * editor / options.editors(),
+                        periodMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (options.readsPerSecond() > 0) {
+            int perTick = Math.max(1, options.readsPerSecond() / 100);
+            clients.scheduleAtFixedRate(() -> read(perTick), 0L, 10L, TimeUnit.MILLISECONDS);
+        }
+
+        System.out.printf(Locale.ROOT, "Running for %d s ...%n", options.durationSeconds());
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.durationSeconds()));
+        clients.shutdown();
+        clients.awaitTermination(30, TimeUnit.SECONDS);
+        nodes.forEach(LoadNode::stopSync);
+        syncers.shutdown();
+        syncers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void edit(LoadNode node, String editor) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String key = options.hotKeys() > 0 && random.nextDouble() < options.hotShare()
+                ? keys.get(random.nextInt(Math.min(options.hotKeys(), keys.size())))
+                : keys.get(random.nextInt(keys.size()));
+        ItemManager.UpdateResult result;
+        if (random.nextDouble() < options.renameShare()) {
+            result = node.items.setDisplayName(key, "&6Renamed by " + editor + " #" + random.nextInt(1000), editor);
+        } else {
+            String tag = TAG_PREFIX + editor + "-" + tags.incrementAndGet();
+            attempted.add(tag);
+            result = node.items.addLoreLine(key, tag, editor);
+            if (result == ItemManager.UpdateResult.UPDATED) {
+                acknowledged.computeIfAbsent(key, ignored -> ConcurrentHashMap.newKeySet()).add(tag);
+            }
+        }
+        results.get(result).increment();
+    }
+
+    private void read(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            LoadNode node = nodes.get(random.nextInt(nodes.size()));
+            if (node.items.get(keys.get(random.nextInt(keys.size()))) == null) {
+                readMisses.increment();
+            }
+            reads.increment();
+        }
+    }
+
+    // nach dem Lauf pollen, bis kein Node mehr Änderungen findet
+    private void settle() {
+        for (int round = 0; round < 20; round++) {
+            int applied = 0;
+            for (LoadNode node : nodes) {
+                applied += node.syncOnce();
+            }
+            if (applied == 0) {
+                return;
+            }
+        }
+    }
+
+    private Map<String, Long> databaseCalls() {
+        Map<String, Long> total = new TreeMap<>();
+        for (LoadNode node : nodes) {
+            node.databaseCalls().forEach((operation, count) -> total.merge(operation, count, Long::sum));
+        }
+        return total;
+    }
+
+    private void report(double seconds, Map<String, Long> before, Map<String, Long> after, long heapPerNode) throws Exception {
+        LatencyHistogram lag = new LatencyHistogram();
+        long syncFailures = 0;
+        for (LoadNode node : nodes) {
+            lag.add(node.propagationLag());
+            syncFailures += node.syncFailures.get();
+        }
+        LatencyHistogram.Snapshot lagSnapshot = lag.snapshot();
+
+        Map<String, ItemRecord> stored = new HashMap<>();
+        for (ItemRecord record : nodes.get(0).database.loadAllItems()) {
+            stored.put(record.key(), record);
+        }
+        long lost = 0;
+        long duplicated = 0;
+        long unacknowledged = 0;
+        for (String key : keys) {
+            ItemRecord record = stored.get(key);
+            Map<String, Integer> found = new HashMap<>();
+            if (record != null) {
+                for (String line : record.lore()) {
+                    String tag = ChatColor.stripColor(line);
+                    if (tag.startsWith(TAG_PREFIX)) {
+                        found.merge(tag, 1, Integer::sum);
+                    }
+                }
+            }
+            Set<String> expected = acknowledged.getOrDefault(key, Set.of());
+            for (String tag : expected) {
+                if (!found.containsKey(tag)) {
+                    lost++;
+                }
+            }
+            for (Map.Entry<String, Integer> entry : found.entrySet()) {
+                duplicated += entry.getValue() - 1;
+                if (!expected.contains(entry.getKey()) && attempted.contains(entry.getKey())) {
+                    unacknowledged++;
+                }
+            }
+        }
+
+        int staleNodes = 0;
+        long staleItems = 0;
+        for (LoadNode node : nodes) {
+            long stale = keys.stream()
+                    .filter(key -> {
+                        ItemRecord expected = stored.get(key);
+                        long cached = node.items.record(key).map(ItemRecord::sequence).orElse(-1L);
+                        return expected == null ? cached != -1L : cached != expected.sequence();
+                    })
+                    .count();
+            staleItems += stale;
+            if (stale > 0) {
+                staleNodes++;
+            }
+        }
+
+        long totalCalls = 0;
+        StringBuilder perOperation = new StringBuilder();
+        for (Map.Entry<String, Long> entry : after.entrySet()) {
+            long calls = entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+            if (calls <= 0) {
+                continue;
+            }
+            totalCalls += calls;
+            perOperation.append(String.format(Locale.ROOT, "    %-20s %10.1f/s%n", entry.getKey(), calls / seconds));
+        }
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Nodes: %d, backend: %s, duration: %.1f s, sync interval: %d ms%n",
+                nodes.size(), options.backend(), seconds, options.syncIntervalMillis());
+        System.out.printf(Locale.ROOT, "Edits: %d updated, %d conflicts, %d failed, %d unavailable%n",
+                results.get(ItemManager.UpdateResult.UPDATED).sum(), results.get(ItemManager.UpdateResult.CONFLICT).sum(),
+                results.get(ItemManager.UpdateResult.FAILED).sum() + results.get(ItemManager.UpdateResult.NOT_FOUND).sum(),
+                results.get(ItemManager.UpdateResult.UNAVAILABLE).sum());
+        System.out.printf(Locale.ROOT, "Reads: %.0f/s (%d misses)%n", reads.sum() / seconds, readMisses.sum());
+        System.out.printf(Locale.ROOT, "Propagation latency (ms): p50 %.1f, p95 %.1f, p99 %.1f, max %.1f over %d deliveries%n",
+                lagSnapshot.p50Nanos() / 1e6, lagSnapshot.p95Nanos() / 1e6, lagSnapshot.p99Nanos() / 1e6,
+                lagSnapshot.maxNanos() / 1e6, lagSnapshot.count());
+        System.out.printf(Locale.ROOT, "Database calls: %.1f/s over all nodes, %d failed polls%n", totalCalls / seconds, syncFailures);
+        System.out.print(perOperation);
+        System.out.printf(Locale.ROOT, "Lost updates: %d, duplicated: %d, stored without acknowledgement: %d%n",
+                lost, duplicated, unacknowledged);
+        System.out.printf(Locale.ROOT, "Stale caches after settling: %d nodes, %d items%n", staleNodes, staleItems);
+        System.out.printf(Locale.ROOT, "Heap per node: ~%d KiB%n", heapPerNode / 1024);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,10 +1,16 @@
 package net.devvoxel.itemDB;
 
+import net.devvoxel.itemDB.api.ItemDBService;
 import net.devvoxel.itemDB.command.DbCommand;
 import net.devvoxel.itemDB.data.Database;
 import net.devvoxel.itemDB.integration.ExternalItemProvider;
 import net.devvoxel.itemDB.integration.ItemDBPlaceholderExpansion;
 import net.devvoxel.itemDB.managers.ItemManager;
+import net.devvoxel.itemDB.managers.SyncScheduler;
+import net.devvoxel.itemDB.metrics.MetricsMBean;
+import net.devvoxel.itemDB.metrics.MetricsRegistry;
+import net.devvoxel.itemDB.metrics.PrometheusFileExporter;
+import net.devvoxel.itemDB.metrics.SlowOperationLog;
 import net.devvoxel.itemDB.i18n.MessageManager;
 import net.devvoxel.itemDB.ui.ItemsGui;
 import net.devvoxel.itemDB.webhook.WebhookNotifier;
@@ -35,7 +41,12 @@ public class ItemDB extends JavaPlugin {
     private WebhookNotifier webhookNotifier;
     private ExternalItemProvider externalItemProvider;
     private ItemDBPlaceholderExpansion placeholderExpansion;
-    private BukkitTask syncTask;
+    private SyncScheduler syncScheduler;
+    private ItemDBService apiService;
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    private MetricsMBean metricsMBean;
+    private PrometheusFileExporter prometheusExporter;
+    private BukkitTask slowLogTask;
 
     private static final String API_BASE_URL = "https://www.craftingstudiopro.de";
     private static final String LICENSE_VALIDATE_ENDPOINT = "/api/license/validate";
@@ -66,6 +77,8 @@ public class ItemDB extends JavaPlugin {
             this.externalItemProvider = new ExternalItemProvider(this);
             this.itemManager = new ItemManager(this, database, webhookNotifier, externalItemProvider);
             this.itemsGui = new ItemsGui(this);
+            this.apiService = new ItemDBService(this, itemManager);
+            apiService.register();
 
             if (externalItemProvider.hasAnyIntegration()) {
                 getLogger().info("Active item integrations: " + externalItemProvider.describeSources());
@@ -95,8 +108,9 @@ public class ItemDB extends JavaPlugin {
                     getConfig().getString("Database.Type", "mysql").toLowerCase())
             );
 
-            long interval = Math.max(20L, getConfig().getLong("Database.SyncIntervalTicks", 100L));
-            this.syncTask = itemManager.applySyncTask(interval);
+            this.syncScheduler = new SyncScheduler(this, itemManager, webhookNotifier);
+            syncScheduler.start();
+            startMetrics();
 
             getLogger().info("ItemDBPremium has been enabled. Thank you for your support!");
             getLogger().info("Loaded items from the database: " + itemManager.size());
@@ -106,19 +120,64 @@ public class ItemDB extends JavaPlugin {
         }
     }
 
+    private void startMetrics() {
+        metricsRegistry.gauge("items.cached", itemManager::size);
+        metricsRegistry.gauges("database", database::backendMetrics);
+        metricsRegistry.gauges("webhooks", webhookNotifier::metrics);
+
+        if (getConfig().getBoolean("Metrics.Jmx", true)) {
+            this.metricsMBean = new MetricsMBean(metricsRegistry);
+            metricsMBean.register(getLogger());
+        }
+        if (getConfig().getBoolean("Metrics.PrometheusFile.Enabled", false)) {
+            this.prometheusExporter = new PrometheusFileExporter(this, metricsRegistry,
+                    getConfig().getString("Metrics.PrometheusFile.File", "metrics.prom"),
+                    getConfig().getLong("Metrics.PrometheusFile.IntervalSeconds", 15L));
+            prometheusExporter.start();
+        }
+        SlowOperationLog slowLog = database.slowLog();
+        if (slowLog != null) {
+            metricsRegistry.gauge("db.slow_operations", slowLog::total);
+            long interval = Math.max(1L, getConfig().getLong("Metrics.SlowLog.FlushSeconds", 30L)) * 20L;
+            this.slowLogTask = Bukkit.getScheduler().runTaskTimerAsynchronously(this, slowLog::flush, interval, interval);
+        }
+    }
+
     @Override
     public void onDisable() {
-        if (syncTask != null) {
-            syncTask.cancel();
-            syncTask = null;
+        if (syncScheduler != null) {
+            syncScheduler.stop();
+            syncScheduler = null;
+        }
+        if (prometheusExporter != null) {
+            prometheusExporter.stop();
+            prometheusExporter = null;
+        }
+        if (slowLogTask != null) {
+            slowLogTask.cancel();
+            slowLogTask = null;
+        }
+        if (metricsMBean != null) {
+            metricsMBean.unregister();
+            metricsMBean = null;
         }
         if (placeholderExpansion != null) {
             placeholderExpansion.unregister();
             placeholderExpansion = null;
         }
+        if (apiService != null) {
+            apiService.close();
+            apiService = null;
+        }
+        if (itemManager != null) {
+            itemManager.close();
+        }
         if (database != null) {
             database.close();
         }
+        if (webhookNotifier != null) {
+            webhookNotifier.close();
+        }
         getLogger().info("ItemDBPremium has been disabled.");
     }
 
@@ -139,6 +198,14 @@ public class ItemDB extends JavaPlugin {
         return database;
     }
 
+    public SyncScheduler syncScheduler() {
+        return syncScheduler;
+    }
+
+    public MetricsRegistry metrics() {
+        return metricsRegistry;
+    }
+
     public WebhookNotifier webhooks() {
         return webhookNotifier;
     }
@@ -0,0 +1,10 @@
+package net.devvoxel.itemDB.api;
+
+/**
+ * A change of a stored item as seen by this server. {@code remote} is true when the change was made on
+ * another server and arrived through sync; {@code sequence} is the database change sequence.
+ */
+public record ItemChange(String key, Type type, long sequence, boolean remote) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+}
@@ -0,0 +1,7 @@
+package net.devvoxel.itemDB.api;
+
+@FunctionalInterface
+public interface ItemChangeListener {
+
+    void onItemChange(ItemChange change);
+}
@@ -0,0 +1,74 @@
+package net.devvoxel.itemDB.api;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Public API of ItemDB for other plugins, registered with Bukkit's ServicesManager:
+ * <pre>{@code
+ * ItemDBApi api = Bukkit.getServicesManager().load(ItemDBApi.class);
+ * }</pre>
+ * Reads are served from the in-memory cache and may be called from any thread. Writes and history hit the
+ * database and therefore only exist as asynchronous variants; their futures complete off the main thread.
+ * Names are case-insensitive.
+ */
+public interface ItemDBApi {
+
+    /** Raised whenever methods are added; existing methods keep their behaviour within a major version. */
+    int VERSION = 1;
+
+    default int apiVersion() {
+        return VERSION;
+    }
+
+    /** A copy of the item, falling back to the {@link ItemSource}s (ItemsAdder, Oraxen, ...) when it is not stored in ItemDB. */
+    Optional<ItemStack> get(String name);
+
+    /** Copies of all found items keyed by the requested name, in request order; missing names are left out. */
+    Map<String, ItemStack> getAll(Collection<String> names);
+
+    /** The stored item without copying it, for callers that only inspect it. External items are not included. */
+    Optional<ItemView> view(String name);
+
+    boolean exists(String name);
+
+    /** Names of all stored items, sorted case-insensitively. */
+    List<String> keys();
+
+    /** Creates or replaces the item. Completes with {@code false} if it could not be stored. */
+    CompletableFuture<Boolean> save(String name, ItemStack item, String editor, String comment);
+
+    /** Completes with {@code false} if the item did not exist or could not be deleted. */
+    CompletableFuture<Boolean> remove(String name, String editor);
+
+    /** Stored versions, newest first, each with its own copy of the item. */
+    CompletableFuture<List<ItemRevision>> history(String name, int limit);
+
+    /**
+     * Calls {@code listener} on the main thread for every item created, changed or deleted on this or any
+     * other server, until the returned subscription is cancelled or ItemDB is disabled.
+     */
+    Subscription subscribe(ItemChangeListener listener);
+
+    /**
+     * Adds a provider for external item ids, e.g. {@code mmoitems:SWORD:CUTLASS}. Throws
+     * {@link IllegalStateException} if one of its namespaces already belongs to another source. Sources are
+     * removed again when ItemDB is disabled; unregister yours in {@code onDisable}.
+     */
+    void registerSource(ItemSource source);
+
+    boolean unregisterSource(ItemSource source);
+
+    /** Forgets cached external items and unknown ids, for sources whose items changed. */
+    void invalidateSources();
+
+    interface Subscription {
+
+        void cancel();
+    }
+}
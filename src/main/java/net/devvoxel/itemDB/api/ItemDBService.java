@@ -0,0 +1,161 @@
+package net.devvoxel.itemDB.api;
+
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.ItemSerializer;
+import net.devvoxel.itemDB.data.ItemVersion;
+import net.devvoxel.itemDB.managers.ItemManager;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.ServicePriority;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/** {@link ItemDBApi} on top of the {@link ItemManager}; registered on enable, unregistered on disable. */
+public class ItemDBService implements ItemDBApi {
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+
+    private final ItemDB plugin;
+    private final ItemManager items;
+    // Datenbankzugriffe blockieren, virtuelle Threads kosten dabei kaum etwas
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<ItemChangeListener> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Set<ItemSource> sources = ConcurrentHashMap.newKeySet();
+
+    public ItemDBService(ItemDB plugin, ItemManager items) {
+        this.plugin = plugin;
+        this.items = items;
+    }
+
+    public void register() {
+        plugin.getServer().getServicesManager().register(ItemDBApi.class, this, plugin, ServicePriority.Normal);
+    }
+
+    public void close() {
+        plugin.getServer().getServicesManager().unregister(ItemDBApi.class, this);
+        subscriptions.forEach(items::removeChangeListener);
+        subscriptions.clear();
+        sources.forEach(plugin.externalItems()::unregister);
+        sources.clear();
+        executor.shutdown();
+        // laufende save/remove noch fertig schreiben lassen, bevor ItemManager und Datenbank geschlossen werden
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("API calls still running after " + CLOSE_TIMEOUT_SECONDS + "s, their changes may be lost.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Optional<ItemStack> get(String name) {
+        return Optional.ofNullable(items.get(name));
+    }
+
+    @Override
+    public Map<String, ItemStack> getAll(Collection<String> names) {
+        return items.getAll(names);
+    }
+
+    @Override
+    public Optional<ItemView> view(String name) {
+        return items.view(name);
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return items.exists(name);
+    }
+
+    @Override
+    public List<String> keys() {
+        return items.keys();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> save(String name, ItemStack item, String editor, String comment) {
+        ItemStack copy = item.clone();
+        return async(() -> items.replace(name, copy, editor, comment));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(String name, String editor) {
+        return async(() -> items.remove(name, editor));
+    }
+
+    @Override
+    public CompletableFuture<List<ItemRevision>> history(String name, int limit) {
+        return async(() -> items.history(name, limit).stream().map(this::revision).toList());
+    }
+
+    @Override
+    public Subscription subscribe(ItemChangeListener listener) {
+        ItemChangeListener onMainThread = change -> {
+            if (Bukkit.isPrimaryThread()) {
+                deliver(listener, change);
+            } else if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> deliver(listener, change));
+            }
+        };
+        subscriptions.add(onMainThread);
+        items.addChangeListener(onMainThread);
+        return () -> {
+            subscriptions.remove(onMainThread);
+            items.removeChangeListener(onMainThread);
+        };
+    }
+
+    @Override
+    public void registerSource(ItemSource source) {
+        plugin.externalItems().register(source);
+        sources.add(source);
+    }
+
+    @Override
+    public boolean unregisterSource(ItemSource source) {
+        sources.remove(source);
+        return plugin.externalItems().unregister(source);
+    }
+
+    @Override
+    public void invalidateSources() {
+        plugin.externalItems().invalidate();
+    }
+
+    private void deliver(ItemChangeListener listener, ItemChange change) {
+        try {
+            listener.onItemChange(change);
+        } catch (RuntimeException ex) {
+            plugin.getLogger().log(Level.WARNING, "Item change listener failed for '" + change.key() + "'", ex);
+        }
+    }
+
+    private ItemRevision revision(ItemVersion version) {
+        ItemStack item = null;
+        try {
+            item = ItemSerializer.deserialize(version.nbt());
+        } catch (IOException | ClassNotFoundException ex) {
+            plugin.getLogger().warning("Konnte Version " + version.version() + " von '" + version.itemName()
+                    + "' nicht lesen: " + ex.getMessage());
+        }
+        return new ItemRevision(version.itemName(), version.version(), version.editor(), version.createdAt(),
+                version.comment(), version.deleted(), item);
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, executor);
+    }
+}
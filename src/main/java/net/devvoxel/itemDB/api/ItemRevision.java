@@ -0,0 +1,19 @@
+package net.devvoxel.itemDB.api;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * One stored version of an item as returned by {@link ItemDBApi#history(String, int)}. {@code item} is a
+ * fresh copy owned by the caller, {@code null} if the stored data could not be read; for a deletion it is
+ * the item as it was deleted.
+ */
+public record ItemRevision(
+        String key,
+        int version,
+        String editor,
+        long createdAt,
+        String comment,
+        boolean deleted,
+        ItemStack item
+) {
+}
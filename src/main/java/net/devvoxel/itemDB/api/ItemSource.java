@@ -0,0 +1,31 @@
+package net.devvoxel.itemDB.api;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Provider of items that are not stored in ItemDB, e.g. from MMOItems or an item generator. Register it with
+ * {@link ItemDBApi#registerSource(ItemSource)}. Ids of the form {@code namespace:id} go straight to the source
+ * owning {@code namespace} and it receives only the part after the colon; ids without a known namespace are
+ * offered to every source with {@link #acceptsUnprefixed()} in registration order.
+ * <p>
+ * {@link #resolve(String)} may be called from any thread and should return a fresh copy; results are cached
+ * by ItemDB for a short time, so a source whose items change must call {@link ItemDBApi#invalidateSources()}.
+ */
+public interface ItemSource {
+
+    /** Name used in log messages and in the {@code external.<name>.*} metrics. */
+    String name();
+
+    /** Lower-case prefixes routed to this source, without the colon. */
+    Set<String> namespaces();
+
+    Optional<ItemStack> resolve(String id);
+
+    /** Whether ids without a known namespace are tried on this source as well. */
+    default boolean acceptsUnprefixed() {
+        return false;
+    }
+}
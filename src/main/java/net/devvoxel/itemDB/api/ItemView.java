@@ -0,0 +1,37 @@
+package net.devvoxel.itemDB.api;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only look at a cached item without copying it. Lore and enchantments are immutable; call
+ * {@link #copy()} only when an {@link ItemStack} is actually needed, e.g. to hand the item out.
+ */
+public interface ItemView {
+
+    String key();
+
+    Material material();
+
+    int amount();
+
+    /** Display name with colour codes, {@code null} if the item has none. */
+    String displayName();
+
+    List<String> lore();
+
+    /** {@code null} if not set. */
+    Integer customModelData();
+
+    /** Enchantment key ({@code namespace:key}) to level. */
+    Map<String, Integer> enchantments();
+
+    long updatedAt();
+
+    long sequence();
+
+    ItemStack copy();
+}
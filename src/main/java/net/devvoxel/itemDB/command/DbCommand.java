@@ -4,7 +4,13 @@ import net.devvoxel.itemDB.ItemDB;
 import net.devvoxel.itemDB.data.ItemRecord;
 import net.devvoxel.itemDB.data.ItemVersion;
 import net.devvoxel.itemDB.i18n.MessageManager;
+import net.devvoxel.itemDB.i18n.MessageTemplate;
 import net.devvoxel.itemDB.managers.ItemManager;
+import net.devvoxel.itemDB.managers.SyncScheduler;
+import net.devvoxel.itemDB.metrics.LatencyHistogram;
+import net.devvoxel.itemDB.metrics.MetricsRegistry;
+import net.devvoxel.itemDB.metrics.OperationContext;
+import net.devvoxel.itemDB.metrics.SlowOperationLog;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -22,10 +28,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class DbCommand implements CommandExecutor, TabCompleter {
 
+    // 36 Slots à 64
+    private static final int MAX_GIVE_AMOUNT = 36 * 64;
+    private static final Set<String> WRITE_SUBCOMMANDS = Set.of("edit", "add", "remove", "rollback", "import");
     private static final DateTimeFormatter HISTORY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
             .withZone(ZoneId.systemDefault());
 
@@ -37,6 +49,17 @@ public class DbCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args) {
+        // nur Unterbefehl und Absender: Lore, Namen und Pfade aus den Argumenten gehören nicht ins Slow-Log
+        String command = args.length == 0 ? "/" + label : "/" + label + " " + args[0].toLowerCase(Locale.ROOT);
+        String previous = OperationContext.enter(command + " (" + sender.getName() + ")");
+        try {
+            return dispatch(sender, label, args);
+        } finally {
+            OperationContext.restore(previous);
+        }
+    }
+
+    private boolean dispatch(CommandSender sender, String label, String[] args) {
         MessageManager msg = plugin.messages();
 
         if (args.length == 0) {
@@ -45,6 +68,10 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         }
 
         String sub = args[0].toLowerCase(Locale.ROOT);
+        if (WRITE_SUBCOMMANDS.contains(sub) && plugin.items().isReadOnly()) {
+            sender.sendMessage(msg.get("database-read-only"));
+            return true;
+        }
         switch (sub) {
             case "show":
                 return handleShow(sender, args, msg);
@@ -70,6 +97,10 @@ public class DbCommand implements CommandExecutor, TabCompleter {
                 return handleImport(sender, args, msg);
             case "export":
                 return handleExport(sender, args, msg);
+            case "stats":
+                return handleStats(sender, msg);
+            case "slowlog":
+                return handleSlowLog(sender, args, msg);
             default:
                 return handleDefault(sender, args, msg);
         }
@@ -114,19 +145,17 @@ public class DbCommand implements CommandExecutor, TabCompleter {
 
         List<ItemRecord> results = plugin.items().search(query, null, limit);
         if (results.isEmpty()) {
-            sender.sendMessage(msg.get("search-empty").replace("{query}", query));
+            sender.sendMessage(msg.format("search-empty", "query", query));
             return true;
         }
 
-        sender.sendMessage(msg.get("search-header")
-                .replace("{query}", query)
-                .replace("{size}", String.valueOf(results.size())));
+        sender.sendMessage(msg.format("search-header", "query", query, "size", results.size()));
         for (ItemRecord record : results) {
             String display = record.displayName() != null ? record.displayName() : "-";
-            sender.sendMessage(msg.get("search-line")
-                    .replace("{name}", record.key())
-                    .replace("{display}", display)
-                    .replace("{customModelData}", record.customModelData() == null ? "-" : record.customModelData().toString()));
+            sender.sendMessage(msg.format("search-line",
+                    "name", record.key(),
+                    "display", display,
+                    "customModelData", record.customModelData() == null ? "-" : record.customModelData().toString()));
         }
         return true;
     }
@@ -143,19 +172,20 @@ public class DbCommand implements CommandExecutor, TabCompleter {
 
         Optional<ItemRecord> record = plugin.items().info(args[1]);
         if (record.isEmpty()) {
-            sender.sendMessage(msg.get("item-not-found").replace("{name}", args[1]));
+            sender.sendMessage(msg.format("item-not-found", "name", args[1]));
             return true;
         }
 
         ItemRecord itemRecord = record.get();
-        sender.sendMessage(msg.get("info-header").replace("{name}", itemRecord.key()));
-        sender.sendMessage(msg.get("info-display").replace("{display}", itemRecord.displayName() == null ? "-" : itemRecord.displayName()));
-        sender.sendMessage(msg.get("info-lore")
-                .replace("{lore}", itemRecord.lore().isEmpty() ? msg.get("info-lore-empty") : String.join(msg.get("info-lore-separator"), itemRecord.lore())));
-        sender.sendMessage(msg.get("info-cmd")
-                .replace("{customModelData}", itemRecord.customModelData() == null ? "-" : itemRecord.customModelData().toString()));
-        sender.sendMessage(msg.get("info-enchants")
-                .replace("{enchantments}", itemRecord.enchantments().isEmpty() ? msg.get("info-enchants-empty") : formatEnchantments(itemRecord)));
+        sender.sendMessage(msg.format("info-header", "name", itemRecord.key()));
+        sender.sendMessage(msg.format("info-display",
+                "display", itemRecord.displayName() == null ? "-" : itemRecord.displayName()));
+        sender.sendMessage(msg.format("info-lore",
+                "lore", itemRecord.lore().isEmpty() ? msg.get("info-lore-empty") : String.join(msg.get("info-lore-separator"), itemRecord.lore())));
+        sender.sendMessage(msg.format("info-cmd",
+                "customModelData", itemRecord.customModelData() == null ? "-" : itemRecord.customModelData().toString()));
+        sender.sendMessage(msg.format("info-enchants",
+                "enchantments", itemRecord.enchantments().isEmpty() ? msg.get("info-enchants-empty") : formatEnchantments(itemRecord)));
         return true;
     }
 
@@ -176,19 +206,13 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         switch (action) {
             case "display", "displayname" -> {
                 if (args.length == 3) {
-                    if (plugin.items().clearDisplayName(name, editor)) {
-                        sender.sendMessage(msg.get("item-display-cleared").replace("{name}", name));
-                    } else {
-                        sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
-                    }
+                    reportEdit(sender, plugin.items().clearDisplayName(name, editor), name,
+                            msg.format("item-display-cleared", "name", name), msg);
                     return true;
                 }
                 String displayName = String.join(" ", Arrays.copyOfRange(args, 3, args.length));
-                if (plugin.items().setDisplayName(name, displayName, editor)) {
-                    sender.sendMessage(msg.get("item-display-updated").replace("{name}", name));
-                } else {
-                    sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
-                }
+                reportEdit(sender, plugin.items().setDisplayName(name, displayName, editor), name,
+                        msg.format("item-display-updated", "name", name), msg);
                 return true;
             }
             case "lore" -> {
@@ -198,11 +222,8 @@ public class DbCommand implements CommandExecutor, TabCompleter {
                 }
                 String loreAction = args[3].toLowerCase(Locale.ROOT);
                 if (loreAction.equals("clear")) {
-                    if (plugin.items().clearLore(name, editor)) {
-                        sender.sendMessage(msg.get("item-lore-cleared").replace("{name}", name));
-                    } else {
-                        sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
-                    }
+                    reportEdit(sender, plugin.items().clearLore(name, editor), name,
+                            msg.format("item-lore-cleared", "name", name), msg);
                     return true;
                 }
 
@@ -212,11 +233,8 @@ public class DbCommand implements CommandExecutor, TabCompleter {
                         return true;
                     }
                     String line = String.join(" ", Arrays.copyOfRange(args, 4, args.length));
-                    if (plugin.items().addLoreLine(name, line, editor)) {
-                        sender.sendMessage(msg.get("item-lore-added").replace("{name}", name));
-                    } else {
-                        sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
-                    }
+                    reportEdit(sender, plugin.items().addLoreLine(name, line, editor), name,
+                            msg.format("item-lore-added", "name", name), msg);
                     return true;
                 }
 
@@ -233,11 +251,8 @@ public class DbCommand implements CommandExecutor, TabCompleter {
                         return true;
                     }
                     String line = String.join(" ", Arrays.copyOfRange(args, 5, args.length));
-                    if (plugin.items().setLoreLine(name, index, line, editor)) {
-                        sender.sendMessage(msg.get("item-lore-set").replace("{name}", name).replace("{line}", String.valueOf(index + 1)));
-                    } else {
-                        sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
-                    }
+                    reportEdit(sender, plugin.items().setLoreLine(name, index, line, editor), name,
+                            msg.format("item-lore-set", "name", name, "line", index + 1), msg);
                     return true;
                 }
 
@@ -246,21 +261,15 @@ public class DbCommand implements CommandExecutor, TabCompleter {
             }
             case "custommodel" -> {
                 if (args.length == 3 || (args.length == 4 && args[3].equalsIgnoreCase("clear"))) {
-                    if (plugin.items().setCustomModelData(name, null, editor)) {
-                        sender.sendMessage(msg.get("item-custommodel-cleared").replace("{name}", name));
-                    } else {
-                        sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
-                    }
+                    reportEdit(sender, plugin.items().setCustomModelData(name, null, editor), name,
+                            msg.format("item-custommodel-cleared", "name", name), msg);
                     return true;
                 }
                 if (args.length >= 4) {
                     try {
                         int value = Integer.parseInt(args[3]);
-                        if (plugin.items().setCustomModelData(name, value, editor)) {
-                            sender.sendMessage(msg.get("item-custommodel-updated").replace("{name}", name).replace("{value}", String.valueOf(value)));
-                        } else {
-                            sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
-                        }
+                        reportEdit(sender, plugin.items().setCustomModelData(name, value, editor), name,
+                                msg.format("item-custommodel-updated", "name", name, "value", value), msg);
                     } catch (NumberFormatException ex) {
                         sender.sendMessage(msg.get("usage-edit-custommodel"));
                     }
@@ -276,6 +285,16 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void reportEdit(CommandSender sender, ItemManager.UpdateResult result, String name, String success, MessageManager msg) {
+        switch (result) {
+            case UPDATED -> sender.sendMessage(success);
+            case NOT_FOUND -> sender.sendMessage(msg.format("item-not-found", "name", name));
+            case CONFLICT -> sender.sendMessage(msg.format("item-conflict", "name", name));
+            case FAILED -> sender.sendMessage(msg.format("item-update-failed", "name", name));
+            case UNAVAILABLE -> sender.sendMessage(msg.get("database-read-only"));
+        }
+    }
+
     private boolean handleAdd(CommandSender sender, String[] args, MessageManager msg) {
         if (args.length != 2) {
             sender.sendMessage(msg.get("usage"));
@@ -291,7 +310,7 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         }
         String name = args[1].toLowerCase(Locale.ROOT);
         if (plugin.items().exists(name)) {
-            player.sendMessage(msg.get("item-exists").replace("{name}", name));
+            player.sendMessage(msg.format("item-exists", "name", name));
             return true;
         }
 
@@ -302,7 +321,7 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         }
 
         plugin.items().add(name, hand, senderName(sender));
-        player.sendMessage(msg.get("item-added").replace("{name}", name));
+        player.sendMessage(msg.format("item-added", "name", name));
         return true;
     }
 
@@ -317,15 +336,15 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         }
         String name = args[1];
         if (plugin.items().remove(name, senderName(sender))) {
-            sender.sendMessage(msg.get("item-removed").replace("{name}", name));
+            sender.sendMessage(msg.format("item-removed", "name", name));
         } else {
-            sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
+            sender.sendMessage(msg.format("item-not-found", "name", name));
         }
         return true;
     }
 
     private boolean handleGiveItem(CommandSender sender, String[] args, MessageManager msg) {
-        if (args.length != 3) {
+        if (args.length != 3 && args.length != 4) {
             sender.sendMessage(msg.get("usage"));
             return true;
         }
@@ -336,19 +355,29 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         String name = args[1];
         Player target = Bukkit.getPlayerExact(args[2]);
         if (target == null) {
-            sender.sendMessage(msg.get("player-not-found").replace("{player}", args[2]));
+            sender.sendMessage(msg.format("player-not-found", "player", args[2]));
             return true;
         }
-        ItemStack item = plugin.items().get(name);
-        if (item == null) {
-            sender.sendMessage(msg.get("item-not-found").replace("{name}", name));
+        int amount = 0;
+        if (args.length == 4) {
+            try {
+                amount = Math.min(MAX_GIVE_AMOUNT, Integer.parseInt(args[3]));
+            } catch (NumberFormatException ex) {
+                amount = -1;
+            }
+            if (amount < 1) {
+                sender.sendMessage(msg.get("usage"));
+                return true;
+            }
+        }
+        ItemManager.GiveResult result = plugin.items().give(target, name, amount);
+        if (result == null) {
+            sender.sendMessage(msg.format("item-not-found", "name", name));
             return true;
         }
-        target.getInventory().addItem(item.clone());
-        sender.sendMessage(msg.get("item-given-other")
-                .replace("{name}", name)
-                .replace("{player}", target.getName()));
-        target.sendMessage(msg.get("item-given-self").replace("{name}", name));
+        reportDropped(target, result, msg);
+        sender.sendMessage(msg.format("item-given-other", "name", name, "player", target.getName()));
+        target.sendMessage(msg.format("item-given-self", "name", name));
         return true;
     }
 
@@ -366,20 +395,20 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         int limit = Math.max(1, plugin.getConfig().getInt("History.DefaultLimit", 20));
         List<ItemVersion> versions = plugin.items().history(name, limit);
         if (versions.isEmpty()) {
-            sender.sendMessage(msg.get("history-empty").replace("{name}", name));
+            sender.sendMessage(msg.format("history-empty", "name", name));
             return true;
         }
-        sender.sendMessage(msg.get("history-header").replace("{name}", name));
+        sender.sendMessage(msg.format("history-header", "name", name));
         for (ItemVersion version : versions) {
             String editor = version.editor() == null || version.editor().isBlank() ? msg.get("history-line-no-editor") : version.editor();
             String comment = version.comment() == null || version.comment().isBlank() ? msg.get("history-line-no-comment") : version.comment();
             String deletedSuffix = version.deleted() ? msg.get("history-line-deleted") : "";
-            String line = msg.get("history-line")
-                    .replace("{version}", String.valueOf(version.version()))
-                    .replace("{timestamp}", formatTimestamp(version.createdAt()))
-                    .replace("{editor}", editor)
-                    .replace("{comment}", comment)
-                    .replace("{deleted}", deletedSuffix);
+            String line = msg.format("history-line",
+                    "version", version.version(),
+                    "timestamp", formatTimestamp(version.createdAt()),
+                    "editor", editor,
+                    "comment", comment,
+                    "deleted", deletedSuffix);
             sender.sendMessage(line);
         }
         return true;
@@ -407,12 +436,12 @@ public class DbCommand implements CommandExecutor, TabCompleter {
 
         Optional<ItemVersion> first = plugin.items().version(name, versionA);
         if (first.isEmpty()) {
-            sender.sendMessage(msg.get("diff-version-missing").replace("{name}", name).replace("{version}", String.valueOf(versionA)));
+            sender.sendMessage(msg.format("diff-version-missing", "name", name, "version", versionA));
             return true;
         }
         Optional<ItemVersion> second = plugin.items().version(name, versionB);
         if (second.isEmpty()) {
-            sender.sendMessage(msg.get("diff-version-missing").replace("{name}", name).replace("{version}", String.valueOf(versionB)));
+            sender.sendMessage(msg.format("diff-version-missing", "name", name, "version", versionB));
             return true;
         }
 
@@ -422,23 +451,20 @@ public class DbCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        sender.sendMessage(msg.get("diff-header")
-                .replace("{name}", name)
-                .replace("{from}", String.valueOf(versionA))
-                .replace("{to}", String.valueOf(versionB)));
+        sender.sendMessage(msg.format("diff-header", "name", name, "from", versionA, "to", versionB));
         for (String entry : diff) {
             if (entry.length() < 3) {
                 continue;
             }
             char type = entry.charAt(0);
             String body = entry.substring(2);
-            String template = switch (type) {
-                case '+' -> msg.get("diff-line-added");
-                case '-' -> msg.get("diff-line-removed");
-                case '~' -> msg.get("diff-line-changed");
-                default -> msg.get("diff-line-changed");
+            MessageTemplate template = switch (type) {
+                case '+' -> msg.template("diff-line-added");
+                case '-' -> msg.template("diff-line-removed");
+                case '~' -> msg.template("diff-line-changed");
+                default -> msg.template("diff-line-changed");
             };
-            sender.sendMessage(template.replace("{line}", body));
+            sender.sendMessage(template.render("line", body));
         }
         return true;
     }
@@ -463,14 +489,14 @@ public class DbCommand implements CommandExecutor, TabCompleter {
 
         Optional<ItemVersion> target = plugin.items().version(name, version);
         if (target.isEmpty()) {
-            sender.sendMessage(msg.get("rollback-version-missing").replace("{name}", name).replace("{version}", String.valueOf(version)));
+            sender.sendMessage(msg.format("rollback-version-missing", "name", name, "version", version));
             return true;
         }
 
         if (plugin.items().rollback(name, version, senderName(sender))) {
-            sender.sendMessage(msg.get("rollback-success").replace("{name}", name).replace("{version}", String.valueOf(version)));
+            sender.sendMessage(msg.format("rollback-success", "name", name, "version", version));
         } else {
-            sender.sendMessage(msg.get("rollback-failed").replace("{name}", name));
+            sender.sendMessage(msg.format("rollback-failed", "name", name));
         }
         return true;
     }
@@ -495,7 +521,7 @@ public class DbCommand implements CommandExecutor, TabCompleter {
             } else if (option.startsWith("--namespace=")) {
                 namespace = option.substring("--namespace=".length());
             } else {
-                sender.sendMessage(msg.get("import-unknown-option").replace("{option}", option));
+                sender.sendMessage(msg.format("import-unknown-option", "option", option));
                 return true;
             }
         }
@@ -504,26 +530,25 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         try {
             path = Path.of(rawPath);
         } catch (InvalidPathException ex) {
-            sender.sendMessage(msg.get("import-invalid-path").replace("{file}", rawPath));
+            sender.sendMessage(msg.format("import-invalid-path", "file", rawPath));
             return true;
         }
 
         ItemManager.ImportReport report = plugin.items().importFromZip(path, namespace, dryRun, senderName(sender));
         if (report.total() == 0 && report.errors().isEmpty()) {
-            sender.sendMessage(msg.get("import-empty").replace("{file}", path.toString()));
+            sender.sendMessage(msg.format("import-empty", "file", path));
         } else {
-            String template = report.dryRun() ? msg.get("import-dry-run") : msg.get("import-success");
-            sender.sendMessage(template
-                    .replace("{file}", path.toString())
-                    .replace("{total}", String.valueOf(report.total()))
-                    .replace("{created}", String.valueOf(report.created()))
-                    .replace("{updated}", String.valueOf(report.updated()))
-                    .replace("{namespace}", namespace == null ? "-" : namespace));
+            sender.sendMessage(msg.format(report.dryRun() ? "import-dry-run" : "import-success",
+                    "file", path,
+                    "total", report.total(),
+                    "created", report.created(),
+                    "updated", report.updated(),
+                    "namespace", namespace == null ? "-" : namespace));
         }
         if (!report.errors().isEmpty()) {
             sender.sendMessage(msg.get("import-errors-header"));
             for (String error : report.errors()) {
-                sender.sendMessage(msg.get("import-error-line").replace("{error}", error));
+                sender.sendMessage(msg.format("import-error-line", "error", error));
             }
         }
         return true;
@@ -546,7 +571,7 @@ public class DbCommand implements CommandExecutor, TabCompleter {
             if (option.startsWith("--namespace=")) {
                 namespace = option.substring("--namespace=".length());
             } else {
-                sender.sendMessage(msg.get("export-unknown-option").replace("{option}", option));
+                sender.sendMessage(msg.format("export-unknown-option", "option", option));
                 return true;
             }
         }
@@ -555,33 +580,125 @@ public class DbCommand implements CommandExecutor, TabCompleter {
         try {
             path = Path.of(rawPath);
         } catch (InvalidPathException ex) {
-            sender.sendMessage(msg.get("export-invalid-path").replace("{file}", rawPath));
+            sender.sendMessage(msg.format("export-invalid-path", "file", rawPath));
             return true;
         }
 
         ItemManager.ExportReport report = plugin.items().exportToZip(path, namespace, senderName(sender));
         if (!report.hasErrors()) {
             if (report.exported() == 0) {
-                sender.sendMessage(msg.get("export-empty").replace("{file}", path.toString()));
+                sender.sendMessage(msg.format("export-empty", "file", path));
             } else {
-                sender.sendMessage(msg.get("export-success")
-                        .replace("{file}", path.toString())
-                        .replace("{count}", String.valueOf(report.exported()))
-                        .replace("{namespace}", namespace == null ? "-" : namespace));
+                sender.sendMessage(msg.format("export-success",
+                        "file", path,
+                        "count", report.exported(),
+                        "namespace", namespace == null ? "-" : namespace));
             }
         } else {
-            sender.sendMessage(msg.get("export-partial")
-                    .replace("{file}", path.toString())
-                    .replace("{count}", String.valueOf(report.exported()))
-                    .replace("{namespace}", namespace == null ? "-" : namespace));
+            sender.sendMessage(msg.format("export-partial",
+                    "file", path,
+                    "count", report.exported(),
+                    "namespace", namespace == null ? "-" : namespace));
             sender.sendMessage(msg.get("export-errors-header"));
             for (String error : report.errors()) {
-                sender.sendMessage(msg.get("export-error-line").replace("{error}", error));
+                sender.sendMessage(msg.format("export-error-line", "error", error));
+            }
+        }
+        return true;
+    }
+
+    private boolean handleStats(CommandSender sender, MessageManager msg) {
+        if (!sender.hasPermission("itemdb.premium.stats")) {
+            sender.sendMessage(msg.get("no-permission"));
+            return true;
+        }
+
+        SyncScheduler scheduler = plugin.syncScheduler();
+        if (scheduler != null) {
+            SyncScheduler.Stats stats = scheduler.stats();
+            String never = msg.get("stats-never");
+            sender.sendMessage(msg.get("stats-header"));
+            sender.sendMessage(msg.format("stats-state",
+                    "state", stats.state().name().toLowerCase(Locale.ROOT),
+                    "interval", stats.intervalTicks()));
+            sender.sendMessage(msg.format("stats-runs",
+                    "runs", stats.runs(),
+                    "skipped", stats.skipped(),
+                    "failures", stats.failures(),
+                    "consecutive", stats.consecutiveFailures()));
+            sender.sendMessage(msg.format("stats-changes", "changes", stats.changesApplied()));
+            sender.sendMessage(msg.format("stats-timing",
+                    "last_run", stats.lastRunAt() == 0 ? never : formatTimestamp(stats.lastRunAt()),
+                    "last_duration", stats.lastDurationMillis(),
+                    "avg_duration", stats.averageDurationMillis(),
+                    "last_success", stats.lastSuccessAt() == 0 ? never : formatTimestamp(stats.lastSuccessAt())));
+        }
+        if (plugin.items().hasPendingWrites()) {
+            sender.sendMessage(msg.format("stats-journal", "pending", plugin.items().pendingWrites()));
+        }
+
+        MetricsRegistry registry = plugin.metrics();
+        Map<String, LatencyHistogram.Snapshot> timers = registry.timerSnapshots();
+        if (!timers.isEmpty()) {
+            sender.sendMessage(msg.get("stats-timers-header"));
+            timers.forEach((key, timer) -> sender.sendMessage(msg.format("stats-timer",
+                    "key", key,
+                    "count", timer.count(),
+                    "avg", formatMillis(timer.averageMillis()),
+                    "p95", formatMillis(timer.p95Nanos() / 1_000_000.0),
+                    "max", formatMillis(timer.maxNanos() / 1_000_000.0))));
+        }
+        Map<String, Number> values = new TreeMap<>(registry.counterValues());
+        values.putAll(registry.gaugeValues());
+        if (!values.isEmpty()) {
+            sender.sendMessage(msg.get("stats-values-header"));
+            values.forEach((key, value) -> sender.sendMessage(msg.format("stats-metric", "key", key, "value", value)));
+        }
+        return true;
+    }
+
+    private boolean handleSlowLog(CommandSender sender, String[] args, MessageManager msg) {
+        if (!sender.hasPermission("itemdb.premium.slowlog")) {
+            sender.sendMessage(msg.get("no-permission"));
+            return true;
+        }
+        int limit = 10;
+        if (args.length >= 2) {
+            try {
+                limit = Math.max(1, Integer.parseInt(args[1]));
+            } catch (NumberFormatException ex) {
+                sender.sendMessage(msg.get("usage-slowlog"));
+                return true;
             }
         }
+
+        SlowOperationLog slowLog = plugin.db().slowLog();
+        List<SlowOperationLog.Entry> entries = slowLog == null ? List.of() : slowLog.recent(limit);
+        if (entries.isEmpty()) {
+            sender.sendMessage(msg.format("slowlog-empty", "threshold", slowLog == null ? "-" : slowLog.thresholdMillis()));
+            return true;
+        }
+        sender.sendMessage(msg.format("slowlog-header",
+                "count", entries.size(),
+                "total", slowLog.total(),
+                "threshold", slowLog.thresholdMillis()));
+        for (SlowOperationLog.Entry entry : entries) {
+            sender.sendMessage(msg.format("slowlog-entry",
+                    "time", formatTimestamp(entry.timestamp()),
+                    "operation", entry.operation(),
+                    "duration", formatMillis(entry.durationMillis()),
+                    "pool_wait", formatMillis(entry.poolWaitMillis()),
+                    "caller", entry.caller(),
+                    "fingerprint", entry.fingerprint(),
+                    "parameters", entry.parameters()));
+        }
         return true;
     }
 
+    private static String formatMillis(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+
     private boolean handleDefault(CommandSender sender, String[] args, MessageManager msg) {
         if (args.length == 1) {
             return giveSelf(sender, args[0], msg);
@@ -599,16 +716,22 @@ public class DbCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(msg.get("no-permission"));
             return true;
         }
-        ItemStack item = plugin.items().get(name);
-        if (item == null) {
-            player.sendMessage(msg.get("item-not-found").replace("{name}", name));
+        ItemManager.GiveResult result = plugin.items().give(player, name, 0);
+        if (result == null) {
+            player.sendMessage(msg.format("item-not-found", "name", name));
             return true;
         }
-        player.getInventory().addItem(item.clone());
-        player.sendMessage(msg.get("item-given-self").replace("{name}", name));
+        reportDropped(player, result, msg);
+        player.sendMessage(msg.format("item-given-self", "name", name));
         return true;
     }
 
+    private static void reportDropped(Player player, ItemManager.GiveResult result, MessageManager msg) {
+        if (result.dropped() > 0) {
+            player.sendMessage(msg.format("item-given-dropped", "amount", result.dropped()));
+        }
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> out = new ArrayList<>();
@@ -626,6 +749,8 @@ public class DbCommand implements CommandExecutor, TabCompleter {
             if (sender.hasPermission("itemdb.premium.rollback")) out.add("rollback");
             if (sender.hasPermission("itemdb.premium.import")) out.add("import");
             if (sender.hasPermission("itemdb.premium.export")) out.add("export");
+            if (sender.hasPermission("itemdb.premium.stats")) out.add("stats");
+            if (sender.hasPermission("itemdb.premium.slowlog")) out.add("slowlog");
             out.addAll(plugin.items().keys());
             return filter(out, args[0]);
         }
@@ -0,0 +1,159 @@
+package net.devvoxel.itemDB.data;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to an unreachable database. After {@code failureThreshold} connectivity failures in a row the
+ * breaker opens and rejects calls immediately. Once the open period has passed a single call is let through
+ * as a probe (half-open): success closes the breaker, failure opens it again for twice as long, up to
+ * {@code maxOpenMillis}. Errors that prove the database answered (constraint violations, conflicts) count
+ * as success.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T run() throws SQLException;
+    }
+
+    private final int failureThreshold;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+    private final Consumer<State> listener;
+    private final LongSupplier clock;
+
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil;
+    private long openMillis;
+    private volatile int consecutiveFailures;
+
+    public CircuitBreaker(int failureThreshold, long baseOpenMillis, long maxOpenMillis, Consumer<State> listener) {
+        this(failureThreshold, baseOpenMillis, maxOpenMillis, listener, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long baseOpenMillis, long maxOpenMillis, Consumer<State> listener, LongSupplier clock) {
+        this.clock = clock;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseOpenMillis = Math.max(1L, baseOpenMillis);
+        this.maxOpenMillis = Math.max(this.baseOpenMillis, maxOpenMillis);
+        this.openMillis = this.baseOpenMillis;
+        this.listener = listener;
+    }
+
+    public <T> T call(Call<T> call) throws SQLException {
+        boolean probe = acquire();
+        try {
+            T result = call.run();
+            onSuccess();
+            return result;
+        } catch (SQLException ex) {
+            if (Database.isConnectivityFailure(ex)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            throw ex;
+        } finally {
+            if (probe) {
+                probing.set(false);
+            }
+        }
+    }
+
+    private boolean acquire() throws DatabaseUnavailableException {
+        State current = state;
+        if (current == State.CLOSED) {
+            return false;
+        }
+        if (current == State.OPEN && clock.getAsLong() < openUntil) {
+            rejected.incrementAndGet();
+            throw new DatabaseUnavailableException(openUntil);
+        }
+        // nur ein Aufruf testet die Verbindung, alle anderen werden weiter abgewiesen
+        if (!probing.compareAndSet(false, true)) {
+            rejected.incrementAndGet();
+            throw new DatabaseUnavailableException(openUntil);
+        }
+        synchronized (this) {
+            transition(State.HALF_OPEN);
+        }
+        return true;
+    }
+
+    private void onSuccess() {
+        // Normalfall ohne Lock: geschlossen und seit dem letzten Erfolg kein Fehler
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        boolean changed;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            openMillis = baseOpenMillis;
+            changed = transition(State.CLOSED);
+        }
+        if (changed) {
+            report(State.CLOSED);
+        }
+    }
+
+    private void onFailure() {
+        synchronized (this) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN) {
+                openMillis = Math.min(maxOpenMillis, openMillis * 2);
+            } else if (state != State.CLOSED || consecutiveFailures < failureThreshold) {
+                return;
+            }
+            openUntil = clock.getAsLong() + openMillis;
+            opened.incrementAndGet();
+            if (!transition(State.OPEN)) {
+                return;
+            }
+        }
+        report(State.OPEN);
+    }
+
+    /** Sets the state; true if the change is reported to the listener. Caller holds the lock. */
+    private boolean transition(State next) {
+        if (state == next) {
+            return false;
+        }
+        State previous = state;
+        state = next;
+        // HALF_OPEN ist nur ein Zwischenzustand und wird nicht gemeldet
+        return next != State.HALF_OPEN && !(previous == State.HALF_OPEN && next == State.OPEN);
+    }
+
+    // außerhalb des Locks, der Listener loggt und verschickt Webhooks; überholte Meldungen entfallen
+    private void report(State reported) {
+        if (state == reported) {
+            listener.accept(reported);
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    public long openedCount() {
+        return opened.get();
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+}
@@ -1,9 +1,17 @@
 package net.devvoxel.itemDB.data;
 
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.backend.LogStorageBackend;
+import net.devvoxel.itemDB.data.backend.MongoStorageBackend;
+import net.devvoxel.itemDB.data.backend.MySqlStorageBackend;
+import net.devvoxel.itemDB.data.backend.SqliteStorageBackend;
+import net.devvoxel.itemDB.data.backend.StorageBackend;
+
 public enum DatabaseType {
     MYSQL,
     SQLITE,
-    MONGODB;
+    MONGODB,
+    LOCAL;
 
     public static DatabaseType fromConfig(String raw) {
         if (raw == null) {
@@ -12,7 +20,17 @@ public enum DatabaseType {
         return switch (raw.toLowerCase()) {
             case "sqlite", "sqlite3" -> SQLITE;
             case "mongo", "mongodb", "mongo-db" -> MONGODB;
+            case "local", "log", "embedded" -> LOCAL;
             default -> MYSQL;
         };
     }
+
+    public StorageBackend createBackend(ItemDB plugin) {
+        return switch (this) {
+            case MYSQL -> new MySqlStorageBackend(plugin);
+            case SQLITE -> new SqliteStorageBackend(plugin);
+            case MONGODB -> new MongoStorageBackend(plugin);
+            case LOCAL -> new LogStorageBackend(plugin);
+        };
+    }
 }
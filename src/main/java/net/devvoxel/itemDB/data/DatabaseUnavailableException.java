@@ -0,0 +1,21 @@
+package net.devvoxel.itemDB.data;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown without touching the backend while the {@link CircuitBreaker} is open, i.e. the database recently
+ * failed repeatedly and is given time to recover.
+ */
+public class DatabaseUnavailableException extends SQLTransientConnectionException {
+
+    private final long retryAt;
+
+    public DatabaseUnavailableException(long retryAt) {
+        super("Database unavailable, next attempt in " + Math.max(0L, retryAt - System.currentTimeMillis()) / 1000L + "s", "08001");
+        this.retryAt = retryAt;
+    }
+
+    public long retryAt() {
+        return retryAt;
+    }
+}
@@ -0,0 +1,27 @@
+package net.devvoxel.itemDB.data;
+
+import java.sql.SQLException;
+
+/**
+ * A conditional write found the item at a different change sequence than the one the edit was based on,
+ * i.e. another server (or editor) changed or deleted it in the meantime.
+ */
+public class ItemConflictException extends SQLException {
+
+    private final String key;
+    private final long expectedSequence;
+
+    public ItemConflictException(String key, long expectedSequence) {
+        super("Item '" + key + "' was changed concurrently (expected change " + expectedSequence + ")", "40001");
+        this.key = key;
+        this.expectedSequence = expectedSequence;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public long expectedSequence() {
+        return expectedSequence;
+    }
+}
@@ -14,6 +14,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+/**
+ * Cached item state. {@code sequence} is the change sequence assigned by the database when this state was
+ * stored; it orders changes across servers independent of their clocks. {@code 0} means not stored yet.
+ */
 public record ItemRecord(
         String key,
         ItemStack item,
@@ -22,7 +26,8 @@ public record ItemRecord(
         Integer customModelData,
         Map<String, Integer> enchantments,
         long updatedAt,
-        boolean deleted
+        boolean deleted,
+        long sequence
 ) {
 
     public ItemRecord {
@@ -34,6 +39,15 @@ public record ItemRecord(
         enchantments = enchantments == null ? Map.of() : Map.copyOf(enchantments);
     }
 
+    public ItemRecord(String key, ItemStack item, String displayName, List<String> lore, Integer customModelData,
+                      Map<String, Integer> enchantments, long updatedAt, boolean deleted) {
+        this(key, item, displayName, lore, customModelData, enchantments, updatedAt, deleted, 0L);
+    }
+
+    public ItemRecord withSequence(long newSequence) {
+        return new ItemRecord(key, item, displayName, lore, customModelData, enchantments, updatedAt, deleted, newSequence);
+    }
+
     public ItemRecord withItem(ItemStack newItem, long timestamp) {
         ItemMeta meta = newItem.getItemMeta();
         String newDisplay = meta != null && meta.hasDisplayName() ? meta.getDisplayName() : null;
@@ -43,7 +57,7 @@ public record ItemRecord(
                 ? meta.getEnchants().entrySet().stream()
                 .collect(Collectors.toMap(e -> namespacedKey(e.getKey()), Map.Entry::getValue))
                 : Map.of();
-        return new ItemRecord(key, newItem, newDisplay, newLore, newCmd, newEnchants, timestamp, false);
+        return new ItemRecord(key, newItem, newDisplay, newLore, newCmd, newEnchants, timestamp, false, sequence);
     }
 
     private static String namespacedKey(Enchantment enchantment) {
@@ -52,7 +66,7 @@ public record ItemRecord(
     }
 
     public ItemRecord markDeleted(long timestamp) {
-        return new ItemRecord(key, item, displayName, lore, customModelData, enchantments, timestamp, true);
+        return new ItemRecord(key, item, displayName, lore, customModelData, enchantments, timestamp, true, sequence);
     }
 
     public ItemMeta meta() {
@@ -1,5 +1,6 @@
 package net.devvoxel.itemDB.data;
 
+import net.devvoxel.itemDB.jfr.SerializationEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.io.BukkitObjectInputStream;
 import org.bukkit.util.io.BukkitObjectOutputStream;
@@ -15,15 +16,21 @@ public final class ItemSerializer {
     }
 
     public static String serialize(ItemStack stack) throws IOException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
              BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream)) {
             dataOutput.writeObject(stack);
             dataOutput.flush();
-            return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+            String encoded = Base64.getEncoder().encodeToString(outputStream.toByteArray());
+            commit(event, "encode", stack, encoded.length());
+            return encoded;
         }
     }
 
     public static ItemStack deserialize(String base64) throws IOException, ClassNotFoundException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         byte[] data = Base64.getDecoder().decode(base64);
         try (ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
              BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream)) {
@@ -31,7 +38,18 @@ public final class ItemSerializer {
             if (!(object instanceof ItemStack itemStack)) {
                 throw new IOException("Serialized data does not represent an ItemStack");
             }
+            commit(event, "decode", itemStack, base64.length());
             return itemStack;
         }
     }
+
+    private static void commit(SerializationEvent event, String direction, ItemStack stack, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = direction;
+            event.material = stack == null ? null : stack.getType().name();
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
 }
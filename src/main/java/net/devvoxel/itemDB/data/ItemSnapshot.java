@@ -0,0 +1,10 @@
+package net.devvoxel.itemDB.data;
+
+import java.util.List;
+
+/**
+ * All stored items together with the change sequence they reflect: every change up to {@code sequence} is
+ * contained in {@code items}, later ones have to be fetched with {@code fetchChanges(sequence)}.
+ */
+public record ItemSnapshot(long sequence, List<ItemRecord> items) {
+}
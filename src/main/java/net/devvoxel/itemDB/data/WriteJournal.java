@@ -0,0 +1,154 @@
+package net.devvoxel.itemDB.data;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal of item writes that could not reach the backend. Every entry is one JSON line,
+ * forced to disk before {@link #append} returns, so accepted edits survive a crash or restart. Entries are
+ * replayed in order and dropped with {@link #acknowledge} once the backend has them.
+ */
+public class WriteJournal {
+
+    private static final Gson GSON = new Gson();
+
+    /** Expected sequence of an update based on an earlier journaled write of the same key. */
+    public static final long CHAINED = -1L;
+
+    public enum Operation { SAVE, UPDATE, DELETE }
+
+    private final Path file;
+    private final Logger logger;
+    private final List<Entry> entries = new ArrayList<>();
+    private FileChannel channel;
+    private long lastId;
+
+    public WriteJournal(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    public synchronized void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        if (Files.isRegularFile(file)) {
+            int lineNumber = 0;
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Entry entry = GSON.fromJson(line, Entry.class);
+                    entries.add(entry);
+                    lastId = Math.max(lastId, entry.id());
+                } catch (JsonParseException ex) {
+                    // abgebrochener Schreibvorgang beim Absturz: nur die letzte Zeile kann betroffen sein
+                    logger.warning("Ignoring unreadable journal line " + lineNumber + ": " + ex.getMessage());
+                }
+            }
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public synchronized Entry append(Operation operation, String key, String nbt, long expectedSequence,
+                                     String editor, String comment, long timestamp) throws IOException {
+        if (channel == null) {
+            throw new IOException("Write journal is not open");
+        }
+        Entry entry = new Entry(lastId + 1, operation, key, nbt, expectedSequence, editor, comment, timestamp);
+        ByteBuffer line = StandardCharsets.UTF_8.encode(GSON.toJson(entry) + "\n");
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        channel.force(false);
+        lastId = entry.id();
+        entries.add(entry);
+        return entry;
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized boolean contains(String key) {
+        for (Entry entry : entries) {
+            if (entry.key().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether an entry for {@code key} was journaled after entry {@code id}. */
+    public synchronized boolean hasLater(String key, long id) {
+        for (Entry entry : entries) {
+            if (entry.id() > id && entry.key().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized List<Entry> pending() {
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Drops all entries up to and including {@code id} and rewrites the file with the rest.
+     */
+    public synchronized void acknowledge(long id) throws IOException {
+        if (!entries.removeIf(entry -> entry.id() <= id)) {
+            return;
+        }
+        channel.close();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Entry entry : entries) {
+                writer.write(GSON.toJson(entry));
+                writer.newLine();
+            }
+        }
+        try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            tempChannel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            logger.warning("Failed to close write journal: " + ex.getMessage());
+        }
+        channel = null;
+    }
+
+    public record Entry(long id, Operation operation, String key, String nbt, long expectedSequence,
+                        String editor, String comment, long timestamp) {
+
+        public boolean chained() {
+            return expectedSequence == CHAINED;
+        }
+    }
+}
@@ -0,0 +1,974 @@
+package net.devvoxel.itemDB.data.backend;
+
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.ItemConflictException;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.data.ItemSnapshot;
+import net.devvoxel.itemDB.data.ItemVersion;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded append-only store for single-server setups. Items, versions and audit entries are written as
+ * CRC-framed entries to segment files; the in-memory index is rebuilt on startup by scanning the segments
+ * through memory-mapped windows. Superseded item entries are dropped by periodic compaction; versions and
+ * audit entries are history and are kept.
+ * <p>
+ * Entry layout: {@code [int payloadLength][int crc32][byte type][fields...]}.
+ */
+public class LogStorageBackend implements StorageBackend {
+
+    private static final byte ENTRY_ITEM = 1;
+    private static final byte ENTRY_VERSION = 2;
+    private static final byte ENTRY_AUDIT = 3;
+    private static final int HEADER_BYTES = 8;
+    private static final long UNCONDITIONAL = -1L;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final int REPLAY_WINDOW_BYTES = 64 * 1024 * 1024;
+    // darunter lohnt das Umschreiben aller Segmente nicht
+    private static final long MIN_RECLAIM_BYTES = 64 * 1024;
+
+    private final Path dataFolder;
+    private final Logger logger;
+    private final int replayWindowBytes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, ItemRow> items = new ConcurrentHashMap<>();
+    // everything below is guarded by lock
+    private final Map<String, NavigableMap<Integer, VersionRef>> versions = new HashMap<>();
+    private final NavigableMap<Long, EntryRef> audit = new TreeMap<>();
+    private final NavigableMap<Integer, FileChannel> segments = new TreeMap<>();
+    private final Object flushMonitor = new Object();
+
+    private Path directory;
+    private volatile FileChannel active;
+    private int activeId;
+    private long activeSize;
+    private long totalBytes;
+    private long deadBytes;
+    private long nextEntryId = 1;
+    private long lastSequence;
+    private long appendedBytes;
+    private long flushedBytes;
+
+    private long segmentLimit;
+    private boolean syncWrites;
+    private ScheduledExecutorService maintenance;
+
+    public LogStorageBackend(ItemDB plugin) {
+        this(plugin.getDataFolder().toPath(), plugin.getLogger(), REPLAY_WINDOW_BYTES);
+    }
+
+    LogStorageBackend(Path dataFolder, Logger logger, int replayWindowBytes) {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+        this.replayWindowBytes = replayWindowBytes;
+    }
+
+    @Override
+    public void connect(ConfigurationSection cfg) throws SQLException {
+        this.directory = dataFolder.resolve(cfg.getString("LocalDirectory", "storage"));
+        this.segmentLimit = Math.max(1, cfg.getLong("LocalSegmentSizeMb", 16L)) * 1024L * 1024L;
+        this.syncWrites = cfg.getBoolean("LocalSyncWrites", false);
+        long fsyncInterval = Math.max(5L, cfg.getLong("LocalFsyncIntervalMillis", 50L));
+        long compactionInterval = Math.max(1L, cfg.getLong("LocalCompactionIntervalMinutes", 10L));
+
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException ex) {
+            throw new SQLException("Unable to open local storage in " + directory, ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ItemDB-LocalStore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::flush, fsyncInterval, fsyncInterval, TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::compactIfWorthwhile, compactionInterval, compactionInterval, TimeUnit.MINUTES);
+
+        logger.info("Local storage ready: " + items.size() + " items in " + segments.size() + " segment(s).");
+    }
+
+    private void recover() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        List<Path> unfinished = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(COMPACT_SUFFIX)) {
+                    unfinished.add(path);
+                }
+            });
+        }
+        // von einer abgebrochenen Kompaktierung, die alten Segmente sind noch vollständig
+        for (Path path : unfinished) {
+            logger.warning("Removing unfinished compaction output " + path.getFileName());
+            Files.deleteIfExists(path);
+        }
+        ids.sort(Comparator.naturalOrder());
+
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long valid = replay(id, channel);
+            if (valid < channel.size()) {
+                if (i == ids.size() - 1) {
+                    logger.warning("Truncating torn tail of " + segmentPath(id).getFileName() + " at byte " + valid);
+                    channel.truncate(valid);
+                } else {
+                    logger.warning("Ignoring corrupt data in " + segmentPath(id).getFileName() + " after byte " + valid);
+                }
+            }
+            segments.put(id, channel);
+            totalBytes += valid;
+        }
+
+        if (segments.isEmpty()) {
+            openSegment(1);
+        } else {
+            this.activeId = segments.lastKey();
+            this.active = segments.lastEntry().getValue();
+            this.activeSize = active.size();
+        }
+    }
+
+    /**
+     * Indexes all intact entries of a segment and returns the offset after the last one. The segment is mapped
+     * in windows of {@code replayWindowBytes} (or one entry, if larger), so segments beyond 2 GiB replay too.
+     */
+    private long replay(int segmentId, FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        long windowStart = 0;
+        MappedByteBuffer window = null;
+        while (size - position >= HEADER_BYTES) {
+            if (window == null || position + HEADER_BYTES > windowStart + window.capacity()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, replayWindowBytes));
+            }
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            int crc = window.getInt(offset + 4);
+            if (length <= 0 || length > Integer.MAX_VALUE - HEADER_BYTES || length > size - position - HEADER_BYTES) {
+                return position;
+            }
+            long end = position + HEADER_BYTES + length;
+            if (end > windowStart + window.capacity()) {
+                // Eintrag ragt über das Fenster hinaus: ab seinem Anfang neu mappen
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.max(HEADER_BYTES + length, Math.min(size - position, replayWindowBytes)));
+                offset = 0;
+            }
+            ByteBuffer payload = window.slice(offset + HEADER_BYTES, length);
+            if (checksum(payload.duplicate()) != crc) {
+                return position;
+            }
+            index(payload, new EntryRef(segmentId, position, HEADER_BYTES + length));
+            position = end;
+        }
+        return position;
+    }
+
+    private void index(ByteBuffer payload, EntryRef ref) {
+        byte type = payload.get();
+        switch (type) {
+            case ENTRY_ITEM -> {
+                ItemRow row = readItem(payload, ref.length());
+                lastSequence = Math.max(lastSequence, row.sequence());
+                ItemRow previous = items.put(row.key(), row);
+                if (previous != null) {
+                    deadBytes += previous.entryLength();
+                }
+            }
+            case ENTRY_VERSION -> {
+                long id = payload.getLong();
+                String key = readString(payload);
+                int version = payload.getInt();
+                long createdAt = payload.getLong();
+                boolean deleted = payload.get() != 0;
+                // doppelt nach einer abgebrochenen Kompaktierung, die spätere Kopie gilt
+                VersionRef duplicate = versions.computeIfAbsent(key, ignored -> new TreeMap<>())
+                        .put(version, new VersionRef(id, version, createdAt, deleted, ref));
+                if (duplicate != null) {
+                    deadBytes += duplicate.entry().length();
+                }
+                nextEntryId = Math.max(nextEntryId, id + 1);
+            }
+            case ENTRY_AUDIT -> {
+                long id = payload.getLong();
+                EntryRef duplicate = audit.put(id, ref);
+                if (duplicate != null) {
+                    deadBytes += duplicate.length();
+                }
+                nextEntryId = Math.max(nextEntryId, id + 1);
+            }
+            default -> logger.warning("Skipping unknown local storage entry type " + type);
+        }
+    }
+
+    @Override
+    public long saveItem(ItemRecord record, String serialized, String editor, String comment) throws SQLException {
+        ItemRow row = ItemRow.of(record, serialized);
+        return append(row, UNCONDITIONAL, editor, comment, "save", record.updatedAt());
+    }
+
+    @Override
+    public long saveItemIfUnchanged(ItemRecord record, long expectedSequence, String serialized, String editor, String comment) throws SQLException {
+        ItemRow row = ItemRow.of(record, serialized);
+        return append(row, expectedSequence, editor, comment, "save", record.updatedAt());
+    }
+
+    @Override
+    public boolean markDeleted(ItemRecord record, long timestamp, String serialized, String editor, String comment) throws SQLException {
+        if (!items.containsKey(record.key())) {
+            return false;
+        }
+        ItemRow row = ItemRow.of(record.markDeleted(timestamp), serialized);
+        append(row, UNCONDITIONAL, editor, comment, "delete", timestamp);
+        return true;
+    }
+
+    @Override
+    public long markDeletedIfUnchanged(ItemRecord record, long expectedSequence, long timestamp, String serialized, String editor, String comment) throws SQLException {
+        ItemRow row = ItemRow.of(record.markDeleted(timestamp), serialized);
+        return append(row, expectedSequence, editor, comment, "delete", timestamp);
+    }
+
+    private long append(ItemRow pending, long expectedSequence, String editor, String comment, String action, long timestamp) throws SQLException {
+        long durableAt;
+        long sequence;
+        lock.writeLock().lock();
+        try {
+            if (expectedSequence != UNCONDITIONAL) {
+                ItemRow current = items.get(pending.key());
+                if (current == null || current.deleted() || current.sequence() != expectedSequence) {
+                    throw new ItemConflictException(pending.key(), expectedSequence);
+                }
+            }
+            sequence = lastSequence + 1;
+            ItemRow row = pending.withSequence(sequence);
+            NavigableMap<Integer, VersionRef> history = versions.get(row.key());
+            int version = history == null || history.isEmpty() ? 1 : history.lastKey() + 1;
+            long versionId = nextEntryId++;
+            long auditId = nextEntryId++;
+
+            byte[] itemEntry = encodeItem(row);
+            byte[] versionEntry = encode(ENTRY_VERSION, out -> {
+                out.writeLong(versionId);
+                writeString(out, row.key());
+                out.writeInt(version);
+                out.writeLong(timestamp);
+                out.writeBoolean(row.deleted());
+                writeString(out, editor);
+                writeString(out, comment);
+                writeString(out, row.nbt());
+            });
+            byte[] auditEntry = encodeAudit(auditId, action, row.key(), editor, comment, timestamp);
+
+            long[] offsets = write(itemEntry, versionEntry, auditEntry);
+            ItemRow stored = row.withEntryLength(itemEntry.length);
+            ItemRow previous = items.put(row.key(), stored);
+            if (previous != null) {
+                deadBytes += previous.entryLength();
+            }
+            versions.computeIfAbsent(row.key(), ignored -> new TreeMap<>())
+                    .put(version, new VersionRef(versionId, version, timestamp, row.deleted(),
+                            new EntryRef(activeId, offsets[1], versionEntry.length)));
+            audit.put(auditId, new EntryRef(activeId, offsets[2], auditEntry.length));
+            lastSequence = sequence;
+            durableAt = appendedBytes;
+        } catch (IOException ex) {
+            throw new SQLException("Local storage write failed", ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(durableAt);
+        return sequence;
+    }
+
+    @Override
+    public void recordAudit(String action, String itemName, String editor, String details, long timestamp) throws SQLException {
+        long durableAt;
+        lock.writeLock().lock();
+        try {
+            long auditId = nextEntryId++;
+            byte[] entry = encodeAudit(auditId, action, itemName, editor, details, timestamp);
+            long[] offsets = write(entry);
+            audit.put(auditId, new EntryRef(activeId, offsets[0], entry.length));
+            durableAt = appendedBytes;
+        } catch (IOException ex) {
+            throw new SQLException("Local storage write failed", ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(durableAt);
+    }
+
+    /**
+     * Appends the entries to the active segment in one write. Returns the offset of every entry.
+     */
+    private long[] write(byte[]... entries) throws IOException {
+        int total = 0;
+        for (byte[] entry : entries) {
+            total += entry.length;
+        }
+        if (activeSize > 0 && activeSize + total > segmentLimit) {
+            rollSegment();
+        }
+
+        long[] offsets = new long[entries.length];
+        ByteBuffer[] buffers = new ByteBuffer[entries.length];
+        long offset = activeSize;
+        for (int i = 0; i < entries.length; i++) {
+            offsets[i] = offset;
+            offset += entries[i].length;
+            buffers[i] = ByteBuffer.wrap(entries[i]);
+        }
+        active.position(activeSize);
+        long remaining = total;
+        while (remaining > 0) {
+            remaining -= active.write(buffers);
+        }
+        activeSize += total;
+        totalBytes += total;
+        appendedBytes += total;
+        return offsets;
+    }
+
+    private void rollSegment() throws IOException {
+        active.force(false);
+        markFlushed(appendedBytes);
+        openSegment(activeId + 1);
+    }
+
+    private void openSegment(int id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(id, channel);
+        this.activeId = id;
+        this.active = channel;
+        this.activeSize = channel.size();
+    }
+
+    private void flush() {
+        long target;
+        FileChannel channel;
+        lock.readLock().lock();
+        try {
+            target = appendedBytes;
+            channel = active;
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (flushMonitor) {
+            if (target <= flushedBytes) {
+                return;
+            }
+        }
+        try {
+            channel.force(false);
+            markFlushed(target);
+        } catch (ClosedChannelException ignored) {
+            // rolled or compacted concurrently, both force before closing
+        } catch (IOException ex) {
+            logger.warning("Local storage fsync failed: " + ex.getMessage());
+        }
+    }
+
+    private void markFlushed(long position) {
+        synchronized (flushMonitor) {
+            if (position > flushedBytes) {
+                flushedBytes = position;
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void awaitDurable(long position) throws SQLException {
+        if (!syncWrites) {
+            return;
+        }
+        synchronized (flushMonitor) {
+            while (flushedBytes < position) {
+                try {
+                    flushMonitor.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for local storage fsync", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compacts once the bytes compaction can give back - superseded item entries and duplicates left by an
+     * interrupted compaction - are worth a rewrite: a full segment, or a quarter of the store. Versions and
+     * audit entries are never reclaimed, so they do not count towards the trigger.
+     */
+    boolean compactIfWorthwhile() {
+        lock.writeLock().lock();
+        try {
+            if (deadBytes < MIN_RECLAIM_BYTES || (deadBytes < segmentLimit && deadBytes * 4 < totalBytes)) {
+                return false;
+            }
+            long before = totalBytes;
+            compact();
+            logger.info("Compacted local storage from " + before / 1024 + " KiB to " + totalBytes / 1024 + " KiB.");
+            return true;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Local storage compaction failed", ex);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites all segments into new ones of at most {@code segmentLimit} bytes that only hold the latest entry
+     * per item plus all versions and audit entries. Must be called with the write lock held.
+     * <p>
+     * The new segments get ids after the current active one and are renamed into place only once all of them
+     * are written and synced. Until then the old segments stay open and untouched, so a failure just discards
+     * the output. A crash after the renames leaves old and new segments side by side; replay reads them in id
+     * order, so the compacted copies win and the old ones only count as dead bytes until the next run.
+     */
+    void compact() throws IOException {
+        active.force(false);
+        markFlushed(appendedBytes);
+        List<Integer> sources = new ArrayList<>(segments.keySet());
+
+        Map<String, ItemRow> relocatedItems = new HashMap<>();
+        Map<String, NavigableMap<Integer, VersionRef>> relocatedVersions = new HashMap<>();
+        NavigableMap<Long, EntryRef> relocatedAudit = new TreeMap<>();
+        CompactionOutput output = new CompactionOutput(activeId + 1);
+        try {
+            for (ItemRow row : items.values()) {
+                byte[] entry = encodeItem(row);
+                output.append(ByteBuffer.wrap(entry));
+                relocatedItems.put(row.key(), row.withEntryLength(entry.length));
+            }
+            for (Map.Entry<String, NavigableMap<Integer, VersionRef>> history : versions.entrySet()) {
+                NavigableMap<Integer, VersionRef> moved = new TreeMap<>();
+                for (VersionRef ref : history.getValue().values()) {
+                    moved.put(ref.version(), ref.movedTo(output.append(readRaw(ref.entry()))));
+                }
+                relocatedVersions.put(history.getKey(), moved);
+            }
+            for (Map.Entry<Long, EntryRef> entry : audit.entrySet()) {
+                relocatedAudit.put(entry.getKey(), output.append(readRaw(entry.getValue())));
+            }
+            output.finish();
+        } catch (IOException ex) {
+            output.discard();
+            throw ex;
+        }
+
+        Map<Integer, FileChannel> installed = output.install();
+        try {
+            openSegment(output.nextId());
+        } catch (IOException ex) {
+            output.uninstall(installed);
+            throw ex;
+        }
+        segments.putAll(installed);
+
+        items.putAll(relocatedItems);
+        versions.clear();
+        versions.putAll(relocatedVersions);
+        audit.clear();
+        audit.putAll(relocatedAudit);
+        totalBytes = output.totalBytes();
+        deadBytes = 0;
+
+        for (int id : sources) {
+            segments.remove(id).close();
+            try {
+                Files.deleteIfExists(segmentPath(id));
+            } catch (IOException ex) {
+                // bleibt liegen und wird beim nächsten Start vor den neuen Segmenten gelesen
+                logger.warning("Could not delete compacted segment " + segmentPath(id).getFileName() + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Segments written by {@link #compact()}, kept as {@code .compact} files until {@link #install()}. */
+    private final class CompactionOutput {
+
+        private final List<Integer> ids = new ArrayList<>();
+        private final int firstId;
+        private FileChannel current;
+        private long position;
+        private long totalBytes;
+
+        CompactionOutput(int firstId) {
+            this.firstId = firstId;
+        }
+
+        EntryRef append(ByteBuffer entry) throws IOException {
+            int length = entry.remaining();
+            if (current == null || (position > 0 && position + length > segmentLimit)) {
+                finish();
+                int id = firstId + ids.size();
+                current = FileChannel.open(tempPath(id), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                ids.add(id);
+                position = 0;
+            }
+            EntryRef ref = new EntryRef(ids.get(ids.size() - 1), position, length);
+            position += writeFully(current, entry, position);
+            totalBytes += length;
+            return ref;
+        }
+
+        void finish() throws IOException {
+            if (current != null) {
+                current.force(true);
+                current.close();
+                current = null;
+            }
+        }
+
+        /** Renames all outputs into place and opens them; on failure nothing of the output remains. */
+        Map<Integer, FileChannel> install() throws IOException {
+            Map<Integer, FileChannel> opened = new TreeMap<>();
+            try {
+                for (int id : ids) {
+                    Files.move(tempPath(id), segmentPath(id), StandardCopyOption.ATOMIC_MOVE);
+                }
+                for (int id : ids) {
+                    opened.put(id, FileChannel.open(segmentPath(id), StandardOpenOption.READ, StandardOpenOption.WRITE));
+                }
+                return opened;
+            } catch (IOException ex) {
+                uninstall(opened);
+                throw ex;
+            }
+        }
+
+        // sonst würde der nächste Segmentwechsel an eine Kompaktierungs-Ausgabe anhängen
+        void uninstall(Map<Integer, FileChannel> opened) {
+            for (FileChannel channel : opened.values()) {
+                closeQuietly(channel);
+            }
+            for (int id : ids) {
+                deleteQuietly(segmentPath(id));
+            }
+            discard();
+        }
+
+        void discard() {
+            if (current != null) {
+                closeQuietly(current);
+                current = null;
+            }
+            for (int id : ids) {
+                deleteQuietly(tempPath(id));
+            }
+        }
+
+        int nextId() {
+            return firstId + ids.size();
+        }
+
+        long totalBytes() {
+            return totalBytes;
+        }
+    }
+
+    private Path tempPath(int id) {
+        return directory.resolve(String.format(Locale.ROOT, "%s%08d%s", SEGMENT_PREFIX, id, COMPACT_SUFFIX));
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            logger.fine("Closing " + channel + " failed: " + ex.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            logger.severe("Could not delete " + path.getFileName() + ", remove it before the next start: " + ex.getMessage());
+        }
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private ByteBuffer readRaw(EntryRef ref) throws IOException {
+        FileChannel channel = segments.get(ref.segment());
+        if (channel == null) {
+            throw new IOException("Segment " + ref.segment() + " is missing");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(ref.length());
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, ref.offset() + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment " + ref.segment());
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private ItemVersion readVersion(VersionRef ref) throws SQLException {
+        try {
+            ByteBuffer raw = readRaw(ref.entry());
+            raw.position(HEADER_BYTES + 1);
+            long id = raw.getLong();
+            String key = readString(raw);
+            int version = raw.getInt();
+            long createdAt = raw.getLong();
+            boolean deleted = raw.get() != 0;
+            String editor = readString(raw);
+            String comment = readString(raw);
+            String nbt = readString(raw);
+            return new ItemVersion(id, key, version, editor, nbt, createdAt, comment, deleted);
+        } catch (IOException ex) {
+            throw new SQLException("Local storage read failed", ex);
+        }
+    }
+
+    @Override
+    public List<ItemRecord> loadAllItems() throws SQLException {
+        List<ItemRecord> records = new ArrayList<>(items.size());
+        for (ItemRow row : items.values()) {
+            if (!row.deleted()) {
+                records.add(row.toRecord());
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public ItemSnapshot loadSnapshot() throws SQLException {
+        lock.readLock().lock();
+        try {
+            return new ItemSnapshot(lastSequence, loadAllItems());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long currentSequence() {
+        lock.readLock().lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemRecord> fetchChanges(long sinceSequence) throws SQLException {
+        List<ItemRow> rows = new ArrayList<>();
+        // unter dem Lock, damit keine Lücke zwischen zwei gleichzeitig geschriebenen Sequenzen sichtbar wird
+        lock.readLock().lock();
+        try {
+            for (ItemRow row : items.values()) {
+                if (row.sequence() > sinceSequence) {
+                    rows.add(row);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rows.sort(Comparator.comparingLong(ItemRow::sequence));
+        List<ItemRecord> changes = new ArrayList<>(rows.size());
+        for (ItemRow row : rows) {
+            changes.add(row.toRecord());
+        }
+        return changes;
+    }
+
+    @Override
+    public Optional<ItemRecord> fetchItem(String key) throws SQLException {
+        ItemRow row;
+        lock.readLock().lock();
+        try {
+            row = items.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return row == null ? Optional.empty() : Optional.of(row.toRecord());
+    }
+
+    @Override
+    public List<ItemVersion> fetchHistory(String key, int limit) throws SQLException {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Integer, VersionRef> history = versions.get(key);
+            if (history == null) {
+                return List.of();
+            }
+            List<ItemVersion> out = new ArrayList<>();
+            for (VersionRef ref : history.descendingMap().values()) {
+                if (limit > 0 && out.size() >= limit) {
+                    break;
+                }
+                out.add(readVersion(ref));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<ItemVersion> fetchVersion(String key, int version) throws SQLException {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Integer, VersionRef> history = versions.get(key);
+            VersionRef ref = history == null ? null : history.get(version);
+            return ref == null ? Optional.empty() : Optional.of(readVersion(ref));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemRecord> search(String query, Integer customModelData, int limit) throws SQLException {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<ItemRow> matches = new ArrayList<>();
+        for (ItemRow row : items.values()) {
+            if (row.deleted()) {
+                continue;
+            }
+            if (customModelData != null && !customModelData.equals(row.customModelData())) {
+                continue;
+            }
+            if (contains(row.key(), needle) || contains(row.displayName(), needle) || contains(row.lore(), needle)) {
+                matches.add(row);
+            }
+        }
+        matches.sort(Comparator.comparingLong(ItemRow::updatedAt).reversed());
+        List<ItemRecord> results = new ArrayList<>();
+        for (ItemRow row : matches) {
+            if (limit > 0 && results.size() >= limit) {
+                break;
+            }
+            results.add(row.toRecord());
+        }
+        return results;
+    }
+
+    private static boolean contains(String haystack, String needle) {
+        return haystack != null && haystack.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> out = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            out.put("segments", segments.size());
+            out.put("bytes.total", totalBytes);
+            out.put("bytes.dead", deadBytes);
+            out.put("bytes.unflushed", appendedBytes - flushedBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        out.put("items", items.size());
+        return out;
+    }
+
+    @Override
+    public void close() {
+        if (maintenance != null) {
+            maintenance.shutdown();
+            try {
+                maintenance.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (active != null && active.isOpen()) {
+                active.force(true);
+            }
+            markFlushed(appendedBytes);
+            for (FileChannel channel : segments.values()) {
+                channel.close();
+            }
+            segments.clear();
+        } catch (IOException ex) {
+            logger.warning("Failed to close local storage cleanly: " + ex.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format(Locale.ROOT, "%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    // --- encoding ---
+
+    private static byte[] encodeItem(ItemRow row) throws IOException {
+        return encode(ENTRY_ITEM, out -> {
+            writeString(out, row.key());
+            writeString(out, row.nbt());
+            writeString(out, row.displayName());
+            writeString(out, row.lore());
+            out.writeBoolean(row.customModelData() != null);
+            out.writeInt(row.customModelData() == null ? 0 : row.customModelData());
+            writeString(out, row.enchantments());
+            out.writeLong(row.updatedAt());
+            out.writeBoolean(row.deleted());
+            out.writeLong(row.sequence());
+        });
+    }
+
+    private static ItemRow readItem(ByteBuffer payload, int entryLength) {
+        String key = readString(payload);
+        String nbt = readString(payload);
+        String display = readString(payload);
+        String lore = readString(payload);
+        boolean hasModel = payload.get() != 0;
+        int model = payload.getInt();
+        String enchantments = readString(payload);
+        long updatedAt = payload.getLong();
+        boolean deleted = payload.get() != 0;
+        // Einträge ohne Sequenz (ältere Segmente) zählen als 0 und kommen nur über den vollen Load
+        long sequence = payload.remaining() >= Long.BYTES ? payload.getLong() : 0L;
+        return new ItemRow(key, nbt, display, lore, hasModel ? model : null, enchantments, updatedAt, deleted, sequence, entryLength);
+    }
+
+    private static byte[] encodeAudit(long id, String action, String itemName, String actor, String details, long timestamp) throws IOException {
+        return encode(ENTRY_AUDIT, out -> {
+            out.writeLong(id);
+            writeString(out, action);
+            writeString(out, itemName);
+            writeString(out, actor);
+            writeString(out, details);
+            out.writeLong(timestamp);
+        });
+    }
+
+    private static byte[] encode(byte type, EntryBody body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        body.write(out);
+        out.flush();
+
+        ByteBuffer framed = ByteBuffer.wrap(bytes.toByteArray());
+        int length = framed.capacity() - HEADER_BYTES;
+        framed.putInt(0, length);
+        framed.putInt(4, checksum(framed.slice(HEADER_BYTES, length)));
+        return framed.array();
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface EntryBody {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private record EntryRef(int segment, long offset, int length) {
+    }
+
+    private record VersionRef(long id, int version, long createdAt, boolean deleted, EntryRef entry) {
+        VersionRef movedTo(EntryRef target) {
+            return new VersionRef(id, version, createdAt, deleted, target);
+        }
+    }
+
+    private record ItemRow(String key, String nbt, String displayName, String lore, Integer customModelData,
+                           String enchantments, long updatedAt, boolean deleted, long sequence, int entryLength) {
+
+        static ItemRow of(ItemRecord record, String serialized) {
+            return new ItemRow(record.key(), serialized, record.displayName(), RecordColumns.loreToColumn(record.lore()),
+                    record.customModelData(), RecordColumns.enchantmentsToColumn(record.enchantments()),
+                    record.updatedAt(), record.deleted(), record.sequence(), 0);
+        }
+
+        ItemRow withSequence(long newSequence) {
+            return new ItemRow(key, nbt, displayName, lore, customModelData, enchantments, updatedAt, deleted, newSequence, entryLength);
+        }
+
+        ItemRow withEntryLength(int length) {
+            return new ItemRow(key, nbt, displayName, lore, customModelData, enchantments, updatedAt, deleted, sequence, length);
+        }
+
+        ItemRecord toRecord() throws SQLException {
+            return new ItemRecord(key, RecordColumns.decodeItem(key, nbt), displayName, RecordColumns.columnToLore(lore),
+                    customModelData, RecordColumns.columnToEnchantments(enchantments), updatedAt, deleted, sequence);
+        }
+    }
+}
@@ -0,0 +1,631 @@
+package net.devvoxel.itemDB.data.backend;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.ItemConflictException;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.data.ItemVersion;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class MongoStorageBackend implements StorageBackend {
+
+    /** Documents per getMore when streaming the items collection. */
+    private static final int CURSOR_BATCH_SIZE = 500;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000L;
+    /** Timestamps hold the seconds in the upper 32 bits and a counter in the lower ones. */
+    private static final int TIMESTAMP_SECONDS_SHIFT = 32;
+
+    private final ItemDB plugin;
+    private MongoClient mongoClient;
+    private MongoDatabase mongoDatabase;
+    private MongoCollection<Document> mongoItems;
+    private MongoCollection<Document> mongoVersions;
+    private MongoCollection<Document> mongoAudit;
+    private String mongoCollectionPrefix;
+    private boolean changeStreamsEnabled;
+    private long syncOverlap;
+    private Path resumeTokenFile;
+    private volatile BsonDocument resumeToken;
+    private BsonDocument storedResumeToken;
+    private volatile boolean watching;
+    private Thread watcherThread;
+
+    public MongoStorageBackend(ItemDB plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void connect(ConfigurationSection cfg) throws SQLException {
+        this.mongoCollectionPrefix = cfg.getString("MongoCollectionPrefix", "itemdb_");
+        String uri = cfg.getString("MongoConnectionUri", "mongodb://127.0.0.1:27017/itemdb");
+        String databaseName = cfg.getString("MongoDatabase", cfg.getString("Database", "itemdb"));
+        this.changeStreamsEnabled = cfg.getBoolean("MongoChangeStreams", true);
+        this.syncOverlap = Math.max(0L, cfg.getLong("MongoSyncOverlapSeconds", 5L)) << TIMESTAMP_SECONDS_SHIFT;
+        this.resumeTokenFile = plugin.getDataFolder().toPath().resolve("mongo-resume-token.json");
+        try {
+            this.mongoClient = MongoClients.create(uri);
+            this.mongoDatabase = mongoClient.getDatabase(databaseName);
+            this.mongoItems = mongoDatabase.getCollection(mongoCollectionPrefix + "items");
+            this.mongoVersions = mongoDatabase.getCollection(mongoCollectionPrefix + "versions");
+            this.mongoAudit = mongoDatabase.getCollection(mongoCollectionPrefix + "audit");
+            ensureIndexes();
+        } catch (MongoException ex) {
+            throw new SQLException("Unable to connect to MongoDB", ex);
+        }
+    }
+
+    private void ensureIndexes() {
+        try {
+            mongoItems.createIndex(Indexes.ascending("name"), new IndexOptions().unique(true));
+            mongoItems.createIndex(Indexes.descending("updated_at"));
+            mongoItems.createIndex(Indexes.ascending("change_seq"));
+            mongoVersions.createIndex(Indexes.descending("item_name"));
+            mongoVersions.createIndex(Indexes.compoundIndex(Indexes.ascending("item_name"), Indexes.descending("version")),
+                    new IndexOptions().unique(true));
+            mongoAudit.createIndex(Indexes.descending("created_at"));
+        } catch (MongoException ex) {
+            plugin.getLogger().warning("Failed to ensure MongoDB indexes: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public long saveItem(ItemRecord record, String serialized, String editor, String comment) throws SQLException {
+        try {
+            Document stored = writeItem(Filters.eq("_id", record.key()), buildItemDocument(record, serialized), true);
+
+            int version = nextVersion(record.key());
+            mongoVersions.insertOne(buildVersionDocument(record.key(), version, serialized, editor, comment, record.updatedAt(), record.deleted()));
+            mongoAudit.insertOne(buildAuditDocument("save", record.key(), editor, comment, record.updatedAt()));
+            return sequenceOf(stored);
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public boolean markDeleted(ItemRecord record, long timestamp, String serialized, String editor, String comment) throws SQLException {
+        try {
+            ItemRecord deleted = record.markDeleted(timestamp);
+            if (writeItem(Filters.eq("_id", record.key()), buildItemDocument(deleted, serialized), false) == null) {
+                return false;
+            }
+            int version = nextVersion(record.key());
+            mongoVersions.insertOne(buildVersionDocument(record.key(), version, serialized, editor, comment, timestamp, true));
+            mongoAudit.insertOne(buildAuditDocument("delete", record.key(), editor, comment, timestamp));
+            return true;
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public List<ItemRecord> loadAllItems() throws SQLException {
+        try {
+            List<ItemRecord> out = new ArrayList<>();
+            for (Document doc : mongoItems.find(Filters.eq("is_deleted", false)).batchSize(CURSOR_BATCH_SIZE)) {
+                out.add(mapRecord(doc));
+            }
+            return out;
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    /**
+     * Replaces the item fields and stamps {@code change_seq} with the server's timestamp in the same
+     * update, so the sequence comes from the database instead of this server's clock.
+     */
+    private Document writeItem(Bson filter, Document document, boolean upsert) {
+        List<Bson> updates = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            if (!"_id".equals(entry.getKey())) {
+                updates.add(Updates.set(entry.getKey(), entry.getValue()));
+            }
+        }
+        updates.add(Updates.currentTimestamp("change_seq"));
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+                .upsert(upsert)
+                .returnDocument(ReturnDocument.AFTER)
+                .projection(Projections.include("change_seq"));
+        return mongoItems.findOneAndUpdate(filter, Updates.combine(updates), options);
+    }
+
+    @Override
+    public long saveItemIfUnchanged(ItemRecord record, long expectedSequence, String serialized, String editor, String comment) throws SQLException {
+        try {
+            Document stored = writeItem(unchanged(record.key(), expectedSequence), buildItemDocument(record, serialized), false);
+            if (stored == null) {
+                throw new ItemConflictException(record.key(), expectedSequence);
+            }
+            int version = nextVersion(record.key());
+            mongoVersions.insertOne(buildVersionDocument(record.key(), version, serialized, editor, comment, record.updatedAt(), record.deleted()));
+            mongoAudit.insertOne(buildAuditDocument("save", record.key(), editor, comment, record.updatedAt()));
+            return sequenceOf(stored);
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public long markDeletedIfUnchanged(ItemRecord record, long expectedSequence, long timestamp, String serialized, String editor, String comment) throws SQLException {
+        try {
+            ItemRecord deleted = record.markDeleted(timestamp);
+            Document stored = writeItem(unchanged(record.key(), expectedSequence), buildItemDocument(deleted, serialized), false);
+            if (stored == null) {
+                throw new ItemConflictException(record.key(), expectedSequence);
+            }
+            int version = nextVersion(record.key());
+            mongoVersions.insertOne(buildVersionDocument(record.key(), version, serialized, editor, comment, timestamp, true));
+            mongoAudit.insertOne(buildAuditDocument("delete", record.key(), editor, comment, timestamp));
+            return sequenceOf(stored);
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    private static Bson unchanged(String key, long expectedSequence) {
+        // Dokumente von vor change_seq haben das Feld noch nicht
+        Bson expected = expectedSequence == 0
+                ? Filters.exists("change_seq", false)
+                : Filters.eq("change_seq", new BsonTimestamp(expectedSequence));
+        return Filters.and(Filters.eq("_id", key), Filters.eq("is_deleted", false), expected);
+    }
+
+    // Netzwerkfehler als Verbindungsfehler melden, damit Schreibvorgänge ins Journal umgeleitet werden
+    private static SQLException failure(MongoException ex) {
+        if (ex instanceof MongoSocketException || ex instanceof MongoTimeoutException) {
+            return new SQLTransientConnectionException("MongoDB unreachable", "08006", ex);
+        }
+        return new SQLException("MongoDB operation failed", ex);
+    }
+
+    @Override
+    public String fingerprint(String operation) {
+        String items = mongoCollectionPrefix + "items";
+        return switch (operation) {
+            case "save" -> items + ".findOneAndUpdate({_id: ?}, {$set, $currentDate: change_seq}, upsert) + versions.insertOne + audit.insertOne";
+            case "save_if_unchanged" -> items + ".findOneAndUpdate({_id: ?, is_deleted: false, change_seq: ?}, {$set, $currentDate: change_seq}) + versions.insertOne + audit.insertOne";
+            case "delete" -> items + ".findOneAndUpdate({_id: ?}, {$set, $currentDate: change_seq}) + versions.insertOne + audit.insertOne";
+            case "delete_if_unchanged" -> items + ".findOneAndUpdate({_id: ?, is_deleted: false, change_seq: ?}, {$set, $currentDate: change_seq}) + versions.insertOne + audit.insertOne";
+            case "load_all" -> items + ".find({is_deleted: false})";
+            case "load_snapshot" -> items + ".find().sort({change_seq: -1}).limit(1) + " + items + ".find({is_deleted: false})";
+            case "current_sequence" -> items + ".find().sort({change_seq: -1}).limit(1)";
+            case "fetch_changes" -> items + ".find({change_seq: {$gt: ? - overlap}}).sort({change_seq: 1})";
+            case "fetch_item" -> items + ".find({_id: ?})";
+            case "fetch_history" -> mongoCollectionPrefix + "versions.find({item_name: ?}).sort({version: -1}).limit(?)";
+            case "fetch_version" -> mongoCollectionPrefix + "versions.find({item_name: ?, version: ?})";
+            case "search" -> items + ".find({is_deleted: false, $or: [name, display_name, lore_text ~ /?/i]}).sort({updated_at: -1}).limit(?)";
+            case "audit" -> mongoCollectionPrefix + "audit.insertOne";
+            default -> operation;
+        };
+    }
+
+    private static long sequenceOf(Document doc) {
+        if (doc != null && doc.get("change_seq") instanceof BsonTimestamp timestamp) {
+            return timestamp.getValue();
+        }
+        return 0L;
+    }
+
+    @Override
+    public long currentSequence() throws SQLException {
+        try {
+            Document doc = mongoItems.find()
+                    .sort(Sorts.descending("change_seq"))
+                    .projection(Projections.include("change_seq"))
+                    .first();
+            return sequenceOf(doc);
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    /**
+     * {@code $currentDate} stamps the timestamp when the update starts, so a slow write can become visible
+     * after a faster one with a higher stamp has already been polled. Changes are therefore read again from
+     * {@code MongoSyncOverlapSeconds} below {@code sinceSequence}; callers skip those they already know.
+     */
+    @Override
+    public List<ItemRecord> fetchChanges(long sinceSequence) throws SQLException {
+        long from = sinceSequence > syncOverlap ? sinceSequence - syncOverlap : 0L;
+        try {
+            List<ItemRecord> out = new ArrayList<>();
+            var changes = mongoItems.find(Filters.gt("change_seq", new BsonTimestamp(from)))
+                    .sort(Sorts.ascending("change_seq"));
+            for (Document doc : changes) {
+                out.add(mapRecord(doc));
+            }
+            return out;
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public Optional<ItemRecord> fetchItem(String key) throws SQLException {
+        try {
+            Document doc = mongoItems.find(Filters.eq("_id", key)).first();
+            return doc == null ? Optional.empty() : Optional.of(mapRecord(doc));
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public List<ItemVersion> fetchHistory(String key, int limit) throws SQLException {
+        try {
+            List<ItemVersion> versions = new ArrayList<>();
+            var iterable = mongoVersions.find(Filters.eq("item_name", key)).sort(Sorts.descending("version"));
+            if (limit > 0) {
+                iterable = iterable.limit(limit);
+            }
+            for (Document doc : iterable) {
+                versions.add(mapVersion(doc));
+            }
+            return versions;
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public Optional<ItemVersion> fetchVersion(String key, int version) throws SQLException {
+        try {
+            Document doc = mongoVersions.find(Filters.and(Filters.eq("item_name", key), Filters.eq("version", version))).first();
+            if (doc == null) {
+                return Optional.empty();
+            }
+            return Optional.of(mapVersion(doc));
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public List<ItemRecord> search(String query, Integer customModelData, int limit) throws SQLException {
+        try {
+            Pattern pattern = Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE);
+            List<Bson> predicates = new ArrayList<>();
+            predicates.add(Filters.regex("name", pattern));
+            predicates.add(Filters.regex("display_name", pattern));
+            predicates.add(Filters.regex("lore_text", pattern));
+
+            Bson filter = Filters.and(Filters.eq("is_deleted", false), Filters.or(predicates));
+            if (customModelData != null) {
+                filter = Filters.and(filter, Filters.eq("custom_model_data", customModelData));
+            }
+
+            var iterable = mongoItems.find(filter).sort(Sorts.descending("updated_at"));
+            if (limit > 0) {
+                iterable = iterable.limit(limit);
+            }
+            List<ItemRecord> results = new ArrayList<>();
+            for (Document doc : iterable) {
+                results.add(mapRecord(doc));
+            }
+            return results;
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public void recordAudit(String action, String itemName, String editor, String details, long timestamp) throws SQLException {
+        try {
+            mongoAudit.insertOne(buildAuditDocument(action, itemName, editor, details, timestamp));
+        } catch (MongoException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @Override
+    public boolean subscribeChanges(ChangeListener listener) {
+        if (!changeStreamsEnabled || mongoItems == null) {
+            return false;
+        }
+        if (watching) {
+            return true;
+        }
+        this.resumeToken = readResumeToken();
+        this.storedResumeToken = resumeToken;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+        try {
+            cursor = openChangeStream();
+        } catch (MongoException ex) {
+            if (resumeToken == null) {
+                // Standalone-Server ohne Replica Set unterstützen keine Change Streams
+                plugin.getLogger().info("MongoDB change streams unavailable, polling instead: " + ex.getMessage());
+                return false;
+            }
+            plugin.getLogger().warning("Stored change stream resume token rejected, starting from now: " + ex.getMessage());
+            this.resumeToken = null;
+            try {
+                cursor = openChangeStream();
+            } catch (MongoException retry) {
+                plugin.getLogger().info("MongoDB change streams unavailable, polling instead: " + retry.getMessage());
+                return false;
+            }
+        }
+
+        this.watching = true;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> initial = cursor;
+        this.watcherThread = new Thread(() -> watch(listener, initial), "ItemDB-MongoChangeStream");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        return true;
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openChangeStream() {
+        var stream = mongoItems.watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        BsonDocument token = resumeToken;
+        if (token != null) {
+            stream = stream.resumeAfter(token);
+        }
+        return stream.cursor();
+    }
+
+    private void watch(ChangeListener listener, MongoChangeStreamCursor<ChangeStreamDocument<Document>> initial) {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = initial;
+        long retryDelay = 1000L;
+        boolean failedWithToken = false;
+        while (watching) {
+            try {
+                if (cursor == null) {
+                    cursor = openChangeStream();
+                }
+                listener.onSubscribed();
+                retryDelay = 1000L;
+                failedWithToken = false;
+                drain(listener, cursor);
+            } catch (MongoException ex) {
+                if (!watching) {
+                    break;
+                }
+                listener.onInterrupted(ex);
+                plugin.getLogger().warning("MongoDB change stream interrupted, retrying in " + retryDelay + " ms: " + ex.getMessage());
+                if (failedWithToken) {
+                    // Token liegt nicht mehr im Oplog; ab jetzt weiterlesen, der Listener pollt die Lücke nach
+                    resumeToken = null;
+                }
+                failedWithToken = resumeToken != null;
+                sleep(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+            } finally {
+                if (cursor != null) {
+                    try {
+                        cursor.close();
+                    } catch (MongoException ignored) {
+                    }
+                    cursor = null;
+                }
+            }
+        }
+        persistResumeToken();
+    }
+
+    private void drain(ChangeListener listener, MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        while (watching) {
+            ChangeStreamDocument<Document> event = cursor.tryNext();
+            if (event == null) {
+                // leerer Batch: Post-Batch-Token übernehmen und bei Leerlauf speichern
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    resumeToken = token;
+                }
+                persistResumeToken();
+                continue;
+            }
+            resumeToken = event.getResumeToken();
+            OperationType operation = event.getOperationType();
+            if (operation == OperationType.INVALIDATE || operation == OperationType.DROP
+                    || operation == OperationType.DROP_DATABASE || operation == OperationType.RENAME) {
+                resumeToken = null;
+                throw new MongoException("Change stream invalidated by " + operation);
+            }
+            Document document = event.getFullDocument();
+            if (document == null) {
+                continue;
+            }
+            try {
+                listener.onChange(mapRecord(document));
+            } catch (SQLException ex) {
+                plugin.getLogger().warning("Skipping unreadable change for " + document.getString("name") + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    private BsonDocument readResumeToken() {
+        if (!Files.isRegularFile(resumeTokenFile)) {
+            return null;
+        }
+        try {
+            return BsonDocument.parse(Files.readString(resumeTokenFile, StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException ex) {
+            plugin.getLogger().warning("Ignoring unreadable change stream resume token: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void persistResumeToken() {
+        BsonDocument token = resumeToken;
+        if (token == null || token.equals(storedResumeToken)) {
+            return;
+        }
+        try {
+            Files.createDirectories(resumeTokenFile.getParent());
+            Path temp = resumeTokenFile.resolveSibling(resumeTokenFile.getFileName() + ".tmp");
+            Files.writeString(temp, token.toJson(), StandardCharsets.UTF_8);
+            Files.move(temp, resumeTokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            storedResumeToken = token;
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to store change stream resume token: " + ex.getMessage());
+        }
+    }
+
+    private void sleep(long millis) {
+        long until = System.currentTimeMillis() + millis;
+        try {
+            while (watching && System.currentTimeMillis() < until) {
+                Thread.sleep(Math.min(250L, millis));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            watching = false;
+        }
+    }
+
+    private ItemVersion mapVersion(Document doc) {
+        Number idNumber = (Number) doc.getOrDefault("id", 0L);
+        long id = idNumber == null ? 0L : idNumber.longValue();
+        String itemName = doc.getString("item_name");
+        int version = doc.getInteger("version", 0);
+        String editor = doc.getString("editor");
+        String nbt = doc.getString("nbt");
+        Number createdNumber = (Number) doc.getOrDefault("created_at", 0L);
+        long createdAt = createdNumber == null ? 0L : createdNumber.longValue();
+        String comment = doc.getString("comment");
+        boolean deleted = Boolean.TRUE.equals(doc.getBoolean("is_deleted"));
+        return new ItemVersion(id, itemName, version, editor, nbt, createdAt, comment, deleted);
+    }
+
+    private ItemRecord mapRecord(Document doc) throws SQLException {
+        String key = doc.getString("name");
+        ItemStack item = RecordColumns.decodeItem(key, doc.getString("item"));
+        String display = doc.getString("display_name");
+        List<String> lore = doc.getList("lore", String.class);
+        if (lore == null) {
+            lore = List.of();
+        }
+        Integer cmd = null;
+        if (doc.containsKey("custom_model_data")) {
+            Number number = (Number) doc.get("custom_model_data");
+            if (number != null) {
+                cmd = number.intValue();
+            }
+        }
+        Map<String, Integer> enchantments = documentToEnchantments(doc.get("enchantments", Document.class));
+        Number updated = (Number) doc.getOrDefault("updated_at", 0L);
+        long updatedAt = updated == null ? 0L : updated.longValue();
+        boolean deleted = Boolean.TRUE.equals(doc.getBoolean("is_deleted"));
+        return new ItemRecord(key, item, display, lore, cmd, enchantments, updatedAt, deleted, sequenceOf(doc));
+    }
+
+    private Document buildItemDocument(ItemRecord record, String serialized) {
+        return new Document("_id", record.key())
+                .append("name", record.key())
+                .append("item", serialized)
+                .append("display_name", record.displayName())
+                .append("lore", record.lore())
+                .append("lore_text", RecordColumns.loreToColumn(record.lore()))
+                .append("custom_model_data", record.customModelData())
+                .append("enchantments", enchantmentsToDocument(record.enchantments()))
+                .append("updated_at", record.updatedAt())
+                .append("is_deleted", record.deleted());
+    }
+
+    private Document buildVersionDocument(String key, int version, String serialized, String editor, String comment, long createdAt, boolean deleted) {
+        return new Document("item_name", key)
+                .append("version", version)
+                .append("editor", editor)
+                .append("nbt", serialized)
+                .append("created_at", createdAt)
+                .append("comment", comment)
+                .append("is_deleted", deleted)
+                .append("id", createdAt);
+    }
+
+    private Document buildAuditDocument(String action, String itemName, String editor, String details, long timestamp) {
+        return new Document("action", action)
+                .append("item_name", itemName)
+                .append("actor", editor)
+                .append("details", details)
+                .append("created_at", timestamp);
+    }
+
+    private int nextVersion(String key) {
+        Document doc = mongoVersions.find(Filters.eq("item_name", key)).sort(Sorts.descending("version")).first();
+        if (doc == null) {
+            return 1;
+        }
+        return doc.getInteger("version", 0) + 1;
+    }
+
+    private Document enchantmentsToDocument(Map<String, Integer> enchantments) {
+        if (enchantments == null || enchantments.isEmpty()) {
+            return null;
+        }
+        Document doc = new Document();
+        enchantments.forEach(doc::append);
+        return doc;
+    }
+
+    private Map<String, Integer> documentToEnchantments(Document doc) {
+        if (doc == null || doc.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Integer> map = new HashMap<>();
+        for (Map.Entry<String, Object> entry : doc.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Number number) {
+                map.put(entry.getKey(), number.intValue());
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public void close() {
+        watching = false;
+        if (watcherThread != null) {
+            // tryNext kehrt spätestens nach maxAwaitTime zurück
+            try {
+                watcherThread.join(TimeUnit.SECONDS.toMillis(3));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package net.devvoxel.itemDB.data.backend;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.Database;
+import net.devvoxel.itemDB.data.DatabaseType;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * MySQL/MariaDB engine. Writes always use the primary pool; with {@code ReadReplicas} configured, reads
+ * go to a separate replica pool except for a short window after this node wrote (read-your-writes).
+ * A replica read that fails for connectivity reasons is repeated on the primary and the replicas are left
+ * alone for {@code ReplicaRetrySeconds}, so an outage neither stalls every read nor trips the circuit
+ * breaker while the primary is healthy.
+ */
+public class MySqlStorageBackend extends SqlStorageBackend {
+
+    private static final long HEALTHY = Long.MIN_VALUE;
+    private static final String URL_PARAMETERS =
+            "?useSSL=false&allowPublicKeyRetrieval=true&characterEncoding=utf8&serverTimezone=UTC";
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong replicaFallbacks = new AtomicLong();
+    // System.nanoTime(), ab dem die Replicas wieder versucht werden; HEALTHY solange sie erreichbar sind
+    private final AtomicLong replicaRetryAt = new AtomicLong(HEALTHY);
+
+    private HikariConfig replicaConfig;
+    private volatile HikariDataSource replicaSource;
+    private long readYourWritesNanos;
+    private long replicaRetryNanos;
+    private volatile long primaryReadsUntil;
+
+    public MySqlStorageBackend(ItemDB plugin) {
+        super(plugin, DatabaseType.MYSQL);
+    }
+
+    @Override
+    public void connect(ConfigurationSection cfg) throws SQLException {
+        super.connect(cfg);
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, cfg.getLong("ReadYourWritesMillis", 2000)));
+        this.replicaRetryNanos = TimeUnit.SECONDS.toNanos(Math.max(1, cfg.getLong("ReplicaRetrySeconds", 30)));
+        this.primaryReadsUntil = System.nanoTime();
+
+        List<String> replicas = cfg.getStringList("ReadReplicas");
+        if (replicas.isEmpty()) {
+            return;
+        }
+        int defaultPort = cfg.getInt("Port", 3306);
+        String hosts = replicas.stream()
+                .map(host -> host.contains(":") ? host : host + ":" + defaultPort)
+                .collect(Collectors.joining(","));
+
+        replicaConfig = new HikariConfig();
+        replicaConfig.setMaximumPoolSize(cfg.getInt("ReplicaPoolSize", cfg.getInt("PoolSize", 10)));
+        replicaConfig.setMinimumIdle(Math.max(2, replicaConfig.getMaximumPoolSize() / 2));
+        replicaConfig.setPoolName("ItemDBPool-replica");
+        replicaConfig.setConnectionTestQuery("SELECT 1");
+        // kurzer Timeout, damit bei ausgefallenen Replicas schnell auf den Primary ausgewichen wird
+        replicaConfig.setConnectionTimeout(cfg.getLong("ReplicaConnectionTimeoutMillis", 2000));
+        replicaConfig.setReadOnly(true);
+        replicaConfig.setJdbcUrl(replicas.size() == 1
+                ? "jdbc:mysql://" + hosts + "/" + cfg.getString("Database", "itemdb") + URL_PARAMETERS
+                : "jdbc:mysql:loadbalance://" + hosts + "/" + cfg.getString("Database", "itemdb") + URL_PARAMETERS);
+        replicaConfig.setUsername(cfg.getString("ReplicaUser", cfg.getString("User", "root")));
+        replicaConfig.setPassword(cfg.getString("ReplicaPassword", cfg.getString("Password", "")));
+        replicaConfig.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        applyDriverProperties(replicaConfig);
+
+        plugin.getLogger().info("Using " + replicas.size() + " MySQL read replica(s): " + hosts);
+        startReplicaPool();
+    }
+
+    // auch später noch, falls die Replicas beim Start nicht erreichbar waren
+    private synchronized HikariDataSource startReplicaPool() {
+        if (replicaSource == null) {
+            try {
+                replicaSource = new HikariDataSource(replicaConfig);
+            } catch (RuntimeException ex) {
+                replicaFailed(ex.getMessage());
+            }
+        }
+        return replicaSource;
+    }
+
+    @Override
+    protected void configurePool(HikariConfig hikariConfig, ConfigurationSection cfg) {
+        String host = cfg.getString("Host", "127.0.0.1");
+        int port = cfg.getInt("Port", 3306);
+        String database = cfg.getString("Database", "itemdb");
+        String user = cfg.getString("User", "root");
+        String pass = cfg.getString("Password", "");
+
+        hikariConfig.setJdbcUrl(jdbcUrl(host, port, database));
+        hikariConfig.setUsername(user);
+        hikariConfig.setPassword(pass);
+        hikariConfig.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        applyDriverProperties(hikariConfig);
+    }
+
+    @Override
+    protected <T> T read(SqlWork<T> work) throws SQLException {
+        if (replicaConfig != null && System.nanoTime() - primaryReadsUntil >= 0 && replicasAvailable()) {
+            Connection replica = replicaConnection();
+            if (replica != null) {
+                try (replica) {
+                    T result = work.run(replica);
+                    replicaReads.incrementAndGet();
+                    if (replicaRetryAt.get() != HEALTHY && replicaRetryAt.getAndSet(HEALTHY) != HEALTHY) {
+                        plugin.getLogger().info("Read replicas reachable again.");
+                    }
+                    return result;
+                } catch (SQLException ex) {
+                    // nur Verbindungsfehler auf dem Primary wiederholen, alles andere käme dort genauso
+                    if (!Database.isConnectivityFailure(ex)) {
+                        throw ex;
+                    }
+                    replicaFailed(ex.getMessage());
+                }
+            }
+        }
+        primaryReads.incrementAndGet();
+        return super.read(work);
+    }
+
+    @Override
+    protected <T> T readPrimary(SqlWork<T> work) throws SQLException {
+        primaryReads.incrementAndGet();
+        return super.read(work);
+    }
+
+    // nach einem Ausfall testet nur ein Aufruf je Intervall die Replicas, alle anderen lesen vom Primary
+    private boolean replicasAvailable() {
+        long retryAt = replicaRetryAt.get();
+        if (retryAt == HEALTHY) {
+            return true;
+        }
+        long now = System.nanoTime();
+        return now - retryAt >= 0 && replicaRetryAt.compareAndSet(retryAt, now + replicaRetryNanos);
+    }
+
+    private Connection replicaConnection() {
+        long start = System.nanoTime();
+        try {
+            HikariDataSource source = replicaSource != null ? replicaSource : startReplicaPool();
+            return source == null ? null : source.getConnection();
+        } catch (SQLException ex) {
+            replicaFailed(ex.getMessage());
+            return null;
+        } finally {
+            addPoolWait(System.nanoTime() - start);
+        }
+    }
+
+    private void replicaFailed(String reason) {
+        replicaFallbacks.incrementAndGet();
+        if (replicaRetryAt.getAndSet(System.nanoTime() + replicaRetryNanos) == HEALTHY) {
+            plugin.getLogger().warning("Read replicas unavailable, reading from primary for "
+                    + TimeUnit.NANOSECONDS.toSeconds(replicaRetryNanos) + "s: " + reason);
+        }
+    }
+
+    @Override
+    protected <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try {
+            return super.inTransaction(work);
+        } finally {
+            // Replicas hinken hinterher: eigene Schreibvorgänge eine Weile vom Primary lesen
+            primaryReadsUntil = System.nanoTime() + readYourWritesNanos;
+        }
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> out = super.metrics();
+        addPoolMetrics(out, "replica", replicaSource);
+        out.put("reads.replica", replicaReads.get());
+        out.put("reads.primary", primaryReads.get());
+        out.put("reads.replicaFallback", replicaFallbacks.get());
+        return out;
+    }
+
+    @Override
+    public void close() {
+        if (replicaSource != null) {
+            replicaSource.close();
+        }
+        super.close();
+    }
+
+    protected static String jdbcUrl(String host, int port, String database) {
+        return "jdbc:mysql://" + host + ":" + port + "/" + database + URL_PARAMETERS;
+    }
+
+    protected static void applyDriverProperties(HikariConfig hikariConfig) {
+        // statements come from SqlDialect and are identical per table, so let the driver cache them
+        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSize", "64");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+    }
+}
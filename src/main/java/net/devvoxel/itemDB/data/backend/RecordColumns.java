@@ -0,0 +1,78 @@
+package net.devvoxel.itemDB.data.backend;
+
+import net.devvoxel.itemDB.data.ItemSerializer;
+import org.bukkit.inventory.ItemStack;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column encodings shared by all backends.
+ */
+final class RecordColumns {
+
+    private RecordColumns() {
+    }
+
+    static ItemStack decodeItem(String key, String itemData) throws SQLException {
+        if (itemData == null) {
+            throw new SQLException("Missing serialized item data for key " + key);
+        }
+        try {
+            return ItemSerializer.deserialize(itemData);
+        } catch (Exception ex) {
+            throw new SQLException("Failed to deserialize item for key " + key, ex);
+        }
+    }
+
+    static String loreToColumn(List<String> lore) {
+        if (lore == null || lore.isEmpty()) {
+            return null;
+        }
+        return String.join("\n", lore);
+    }
+
+    static List<String> columnToLore(String column) {
+        return column == null || column.isEmpty()
+                ? List.of()
+                : Arrays.asList(column.split("\n"));
+    }
+
+    static String enchantmentsToColumn(Map<String, Integer> enchantments) {
+        if (enchantments == null || enchantments.isEmpty()) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : enchantments.entrySet()) {
+            String key = entry.getKey();
+            int level = entry.getValue();
+            if (builder.length() > 0) {
+                builder.append('\n');
+            }
+            builder.append(key).append(':').append(level);
+        }
+        return builder.toString();
+    }
+
+    static Map<String, Integer> columnToEnchantments(String column) {
+        Map<String, Integer> enchantments = new HashMap<>();
+        if (column != null && !column.isEmpty()) {
+            for (String part : column.split("\n")) {
+                String[] split = part.split(":");
+                if (split.length == 3) {
+                    String namespace = split[0];
+                    String keyPart = split[1];
+                    try {
+                        int level = Integer.parseInt(split[2]);
+                        enchantments.put(namespace + ":" + keyPart, level);
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        return enchantments;
+    }
+}
@@ -0,0 +1,140 @@
+package net.devvoxel.itemDB.data.backend;
+
+import net.devvoxel.itemDB.data.DatabaseType;
+
+import java.sql.Connection;
+
+/**
+ * Backend specific SQL, built once per table layout instead of being concatenated on every call.
+ */
+final class SqlDialect {
+
+    private static final String ITEM_COLUMNS = "name,item,display_name,lore,custom_model_data,enchantments,updated_at,is_deleted,change_seq";
+    // change_seq wird erst am Ende der Transaktion gestempelt, siehe stampSequence
+    private static final String WRITE_COLUMNS = "name,item,display_name,lore,custom_model_data,enchantments,updated_at,is_deleted";
+    private static final String VERSION_COLUMNS = "id,item_name,version,editor,nbt,created_at,comment,is_deleted";
+
+    private final DatabaseType type;
+
+    final String upsertItem;
+    final String compareAndSetItem;
+    final String markDeleted;
+    final String compareAndDelete;
+    final String stampSequence;
+    final String selectAll;
+    final String selectChanges;
+    final String selectItem;
+    final String selectHistory;
+    final String selectHistoryLimited;
+    final String selectVersion;
+    final String search;
+    final String searchLimited;
+    final String searchByModel;
+    final String searchByModelLimited;
+    final String nextVersion;
+    final String insertVersion;
+    final String insertAudit;
+    final String nextSequence;
+    final String currentSequence;
+    final String seedSequence;
+
+    SqlDialect(DatabaseType type, String table, String versionsTable, String auditTable, String sequenceTable) {
+        if (type == DatabaseType.MONGODB) {
+            throw new IllegalArgumentException("No SQL dialect for " + type);
+        }
+        this.type = type;
+
+        String items = quote(table);
+        String versions = quote(versionsTable);
+        String audit = quote(auditTable);
+        String sequence = quote(sequenceTable);
+
+        this.upsertItem = "INSERT INTO " + items + " (" + WRITE_COLUMNS + ") VALUES (?,?,?,?,?,?,?,?) " + upsertClause(type);
+        this.compareAndSetItem = "UPDATE " + items + " SET item = ?, display_name = ?, lore = ?, custom_model_data = ?, "
+                + "enchantments = ?, updated_at = ?, is_deleted = ? WHERE name = ? AND change_seq = ? AND is_deleted = FALSE";
+        this.markDeleted = "UPDATE " + items + " SET is_deleted = TRUE, updated_at = ? WHERE name = ?";
+        this.compareAndDelete = markDeleted + " AND change_seq = ? AND is_deleted = FALSE";
+        this.stampSequence = "UPDATE " + items + " SET change_seq = ? WHERE name = ?";
+        this.selectAll = "SELECT " + ITEM_COLUMNS + " FROM " + items + " WHERE is_deleted = FALSE";
+        this.selectChanges = "SELECT " + ITEM_COLUMNS + " FROM " + items + " WHERE change_seq > ? ORDER BY change_seq";
+        this.selectItem = "SELECT " + ITEM_COLUMNS + " FROM " + items + " WHERE name = ?";
+
+        String history = "SELECT " + VERSION_COLUMNS + " FROM " + versions + " WHERE item_name = ? ORDER BY version DESC";
+        this.selectHistory = history;
+        this.selectHistoryLimited = history + " LIMIT ?";
+        this.selectVersion = "SELECT " + VERSION_COLUMNS + " FROM " + versions + " WHERE item_name = ? AND version = ?";
+
+        String search = "SELECT " + ITEM_COLUMNS + " FROM " + items
+                + " WHERE is_deleted = FALSE AND (LOWER(name) LIKE ? OR LOWER(display_name) LIKE ? OR LOWER(lore) LIKE ?)";
+        String searchByModel = search + " AND custom_model_data = ?";
+        this.search = search + " ORDER BY updated_at DESC";
+        this.searchLimited = this.search + " LIMIT ?";
+        this.searchByModel = searchByModel + " ORDER BY updated_at DESC";
+        this.searchByModelLimited = this.searchByModel + " LIMIT ?";
+
+        this.nextVersion = "SELECT COALESCE(MAX(version), 0) FROM " + versions + " WHERE item_name = ?";
+        this.insertVersion = "INSERT INTO " + versions + " (item_name,version,editor,nbt,created_at,comment,is_deleted) VALUES (?,?,?,?,?,?,?)";
+        this.insertAudit = "INSERT INTO " + audit + " (action,item_name,actor,details,created_at) VALUES (?,?,?,?,?)";
+
+        // the row lock taken by the UPDATE is held until commit, so sequences become visible in order;
+        // writes take it as their last step to keep that window short
+        this.nextSequence = "UPDATE " + sequence + " SET seq = seq + 1 WHERE id = 1";
+        this.currentSequence = "SELECT seq FROM " + sequence + " WHERE id = 1";
+        this.seedSequence = seedSequence(type, sequence, items);
+    }
+
+    // mehrere Server starten gleichzeitig: nur der erste legt die Zeile an, die anderen behalten deren Stand
+    private static String seedSequence(DatabaseType type, String sequence, String items) {
+        String seed = "SELECT 1, COALESCE(MAX(change_seq), 0) FROM " + items;
+        return switch (type) {
+            case MYSQL -> "INSERT IGNORE INTO " + sequence + " (id, seq) " + seed;
+            // WHERE TRUE, sonst liest SQLite das ON als Join-Bedingung
+            default -> "INSERT INTO " + sequence + " (id, seq) " + seed + " WHERE TRUE ON CONFLICT(id) DO NOTHING";
+        };
+    }
+
+    private static String upsertClause(DatabaseType type) {
+        // MySQL's REPLACE is a DELETE + INSERT, which rewrites the primary key and every secondary index entry
+        return switch (type) {
+            case MYSQL -> "ON DUPLICATE KEY UPDATE item = VALUES(item), display_name = VALUES(display_name), lore = VALUES(lore), "
+                    + "custom_model_data = VALUES(custom_model_data), enchantments = VALUES(enchantments), "
+                    + "updated_at = VALUES(updated_at), is_deleted = VALUES(is_deleted)";
+            default -> "ON CONFLICT(name) DO UPDATE SET item = excluded.item, display_name = excluded.display_name, lore = excluded.lore, "
+                    + "custom_model_data = excluded.custom_model_data, enchantments = excluded.enchantments, "
+                    + "updated_at = excluded.updated_at, is_deleted = excluded.is_deleted";
+        };
+    }
+
+    String search(boolean byModel, boolean limited) {
+        if (byModel) {
+            return limited ? searchByModelLimited : searchByModel;
+        }
+        return limited ? searchLimited : search;
+    }
+
+    /** Isolation under which two selects in one transaction see the same state. */
+    int snapshotIsolation() {
+        // SQLite kennt nur SERIALIZABLE und READ UNCOMMITTED
+        return type == DatabaseType.MYSQL ? Connection.TRANSACTION_REPEATABLE_READ : Connection.TRANSACTION_SERIALIZABLE;
+    }
+
+    String itemColumnType() {
+        return type == DatabaseType.MYSQL ? "LONGTEXT" : "TEXT";
+    }
+
+    String textColumnType() {
+        return "TEXT";
+    }
+
+    String idDefinition() {
+        return type == DatabaseType.MYSQL ? "BIGINT AUTO_INCREMENT PRIMARY KEY" : "INTEGER PRIMARY KEY AUTOINCREMENT";
+    }
+
+    String timestampColumnDefinition() {
+        return type == DatabaseType.MYSQL ? "BIGINT NOT NULL DEFAULT 0" : "INTEGER NOT NULL DEFAULT 0";
+    }
+
+    static String quote(String identifier) {
+        return "`" + identifier + "`";
+    }
+}
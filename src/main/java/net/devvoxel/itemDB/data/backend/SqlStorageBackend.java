@@ -0,0 +1,758 @@
+package net.devvoxel.itemDB.data.backend;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.DatabaseType;
+import net.devvoxel.itemDB.data.ItemConflictException;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.data.ItemSnapshot;
+import net.devvoxel.itemDB.data.ItemVersion;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Shared JDBC engine for the SQL family. Subclasses decide how the pool is configured and may
+ * reroute reads and writes to dedicated connections.
+ */
+public abstract class SqlStorageBackend implements StorageBackend {
+
+    /** Rows fetched per round trip when streaming full table scans. */
+    private static final int FETCH_SIZE = 500;
+
+    // Wartezeit auf eine Verbindung je Thread, wird vom Slow-Log abgeholt
+    private static final ThreadLocal<long[]> POOL_WAIT = ThreadLocal.withInitial(() -> new long[1]);
+
+    protected final ItemDB plugin;
+    protected final DatabaseType type;
+    protected final String versionsTable = "item_versions";
+    protected final String auditTable = "item_audit";
+    protected final String sequenceTable = "item_sequence";
+    protected String table;
+    protected SqlDialect dialect;
+    protected HikariDataSource dataSource;
+
+    protected SqlStorageBackend(ItemDB plugin, DatabaseType type) {
+        this.plugin = plugin;
+        this.type = type;
+    }
+
+    @Override
+    public void connect(ConfigurationSection cfg) throws SQLException {
+        this.table = cfg.getString("Table", "itemdb_items");
+        this.dialect = new SqlDialect(type, table, versionsTable, auditTable, sequenceTable);
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setMaximumPoolSize(cfg.getInt("PoolSize", 10));
+        hikariConfig.setMinimumIdle(Math.max(2, hikariConfig.getMaximumPoolSize() / 2));
+        hikariConfig.setPoolName("ItemDBPool");
+        hikariConfig.setConnectionTestQuery("SELECT 1");
+        configurePool(hikariConfig, cfg);
+
+        this.dataSource = new HikariDataSource(hikariConfig);
+
+        inTransaction(connection -> {
+            initTable(connection);
+            initHistoryTables(connection);
+            return null;
+        });
+    }
+
+    /**
+     * Applies the driver specific settings (JDBC url, credentials, driver properties).
+     */
+    protected abstract void configurePool(HikariConfig hikariConfig, ConfigurationSection cfg) throws SQLException;
+
+    protected Connection readConnection() throws SQLException {
+        return writeConnection();
+    }
+
+    protected Connection writeConnection() throws SQLException {
+        if (dataSource == null) {
+            throw new SQLException("Database not initialised");
+        }
+        return dataSource.getConnection();
+    }
+
+    /** Runs a read-only query on a read connection; subclasses may retry it on another connection. */
+    protected <T> T read(SqlWork<T> work) throws SQLException {
+        try (Connection connection = borrowRead()) {
+            return work.run(connection);
+        }
+    }
+
+    /** Like {@link #read(SqlWork)}, but never on a replica that may lag behind. */
+    protected <T> T readPrimary(SqlWork<T> work) throws SQLException {
+        return read(work);
+    }
+
+    private Connection borrowRead() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return readConnection();
+        } finally {
+            addPoolWait(System.nanoTime() - start);
+        }
+    }
+
+    private Connection borrowWrite() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return writeConnection();
+        } finally {
+            addPoolWait(System.nanoTime() - start);
+        }
+    }
+
+    protected static void addPoolWait(long nanos) {
+        POOL_WAIT.get()[0] += Math.max(0L, nanos);
+    }
+
+    @Override
+    public long takePoolWaitNanos() {
+        long[] wait = POOL_WAIT.get();
+        long nanos = wait[0];
+        wait[0] = 0L;
+        return nanos;
+    }
+
+    @Override
+    public String fingerprint(String operation) {
+        if (dialect == null) {
+            return operation;
+        }
+        return switch (operation) {
+            case "save" -> dialect.upsertItem;
+            case "save_if_unchanged" -> dialect.compareAndSetItem;
+            case "delete" -> dialect.markDeleted;
+            case "delete_if_unchanged" -> dialect.compareAndDelete;
+            case "load_all" -> dialect.selectAll;
+            case "load_snapshot" -> dialect.currentSequence + "; " + dialect.selectAll;
+            case "current_sequence" -> dialect.currentSequence;
+            case "fetch_changes" -> dialect.selectChanges;
+            case "fetch_item" -> dialect.selectItem;
+            case "fetch_history" -> dialect.selectHistoryLimited;
+            case "fetch_version" -> dialect.selectVersion;
+            case "search" -> dialect.searchLimited;
+            case "audit" -> dialect.insertAudit;
+            default -> operation;
+        };
+    }
+
+    /**
+     * Runs {@code work} inside a single transaction on a write connection. All writes, including schema
+     * setup, go through here.
+     */
+    protected <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try (Connection connection = borrowWrite()) {
+            boolean previous = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(previous);
+            }
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        return writeConnection();
+    }
+
+    public String table() {
+        return table;
+    }
+
+    private boolean indexExists(Connection connection, String tableName, String indexName) throws SQLException {
+        // DatabaseMetaData.getIndexInfo liefert Index-Infos für die meisten JDBC-Treiber
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, tableName, false, false)) {
+            while (rs.next()) {
+                String existing = rs.getString("INDEX_NAME");
+                if (existing != null && existing.equals(indexName)) {
+                    return true;
+                }
+            }
+        }
+        // manche Treiber/DBs geben nichts zurück, versuchen wir es noch mit upper/lower names
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, tableName.toUpperCase(Locale.ROOT), false, false)) {
+            while (rs.next()) {
+                String existing = rs.getString("INDEX_NAME");
+                if (existing != null && existing.equals(indexName)) {
+                    return true;
+                }
+            }
+        } catch (SQLException ignored) {}
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, tableName.toLowerCase(Locale.ROOT), false, false)) {
+            while (rs.next()) {
+                String existing = rs.getString("INDEX_NAME");
+                if (existing != null && existing.equals(indexName)) {
+                    return true;
+                }
+            }
+        } catch (SQLException ignored) {}
+        return false;
+    }
+
+    private void ensureIndexExists(Connection connection, String tableName, String indexName, String columnsSql, boolean unique) throws SQLException {
+        if (indexExists(connection, tableName, indexName)) {
+            return;
+        }
+        String sql;
+        if (unique) {
+            sql = "CREATE UNIQUE INDEX `" + indexName + "` ON `" + tableName + "` (" + columnsSql + ")";
+        } else {
+            sql = "CREATE INDEX `" + indexName + "` ON `" + tableName + "` (" + columnsSql + ")";
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private void ensureColumnExists(Connection connection, String column, String definition) throws SQLException {
+        if (columnExists(connection, column)) {
+            return;
+        }
+
+        String sql = "ALTER TABLE `" + table + "` ADD COLUMN `" + column + "` " + definition;
+        // Einige DBs (SQLite) erlauben kein ; am Ende, also weglassen
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+
+        if ("updated_at".equals(column)) {
+            long now = Instant.now().toEpochMilli();
+            String updateSql = "UPDATE `" + table + "` SET `updated_at` = ? WHERE `updated_at` = 0 OR `updated_at` IS NULL";
+            try (PreparedStatement ps = connection.prepareStatement(updateSql)) {
+                ps.setLong(1, now);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private void initTable(Connection connection) throws SQLException {
+        String itemColumnType = dialect.itemColumnType();
+        String textColumnType = dialect.textColumnType();
+
+        String sql = "CREATE TABLE IF NOT EXISTS `" + table + "` (" +
+                "`name` VARCHAR(64) PRIMARY KEY," +
+                "`item` " + itemColumnType + " NOT NULL," +
+                "`display_name` VARCHAR(255)," +
+                "`lore` " + textColumnType + "," +
+                "`custom_model_data` INTEGER," +
+                "`enchantments` " + textColumnType + "," +
+                "`updated_at` BIGINT NOT NULL," +
+                "`is_deleted` BOOLEAN NOT NULL DEFAULT FALSE" +
+                ");";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+
+        ensureColumnExists(connection, "updated_at", dialect.timestampColumnDefinition());
+        ensureColumnExists(connection, "is_deleted", "BOOLEAN NOT NULL DEFAULT FALSE");
+        ensureColumnExists(connection, "change_seq", dialect.timestampColumnDefinition());
+
+        // replace CREATE INDEX IF NOT EXISTS with metadata-checked creation
+        ensureIndexExists(connection, table, "idx_" + table + "_updated", "`updated_at`", false);
+        ensureIndexExists(connection, table, "idx_" + table + "_change_seq", "`change_seq`", false);
+
+        initSequenceTable(connection);
+    }
+
+    private void initSequenceTable(Connection connection) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS `" + sequenceTable + "` (" +
+                "`id` INTEGER PRIMARY KEY," +
+                "`seq` BIGINT NOT NULL" +
+                ");";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+        // bestehende Zeilen behalten change_seq = 0 und kommen über den vollen Load; eine vorhandene Zeile bleibt
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(dialect.seedSequence);
+        }
+    }
+
+    protected long nextSequence(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(dialect.nextSequence)) {
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(dialect.currentSequence);
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("Change sequence row missing in " + sequenceTable);
+            }
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Draws the next sequence and stamps it on the item row. Called as the last statement of a write, so
+     * the lock on the sequence row, which every write in the cluster needs, is held only until the commit
+     * right after it; commits still happen in sequence order.
+     */
+    private long stampSequence(Connection connection, String key) throws SQLException {
+        long sequence = nextSequence(connection);
+        try (PreparedStatement ps = connection.prepareStatement(dialect.stampSequence)) {
+            ps.setLong(1, sequence);
+            ps.setString(2, key);
+            ps.executeUpdate();
+        }
+        return sequence;
+    }
+
+    private void initHistoryTables(Connection connection) throws SQLException {
+        String itemColumnType = dialect.itemColumnType();
+        String textColumnType = dialect.textColumnType();
+        String idDefinition = dialect.idDefinition();
+
+        String versionsSql = "CREATE TABLE IF NOT EXISTS `" + versionsTable + "` (" +
+                "`id` " + idDefinition + "," +
+                "`item_name` VARCHAR(128) NOT NULL," +
+                "`version` INTEGER NOT NULL," +
+                "`editor` VARCHAR(64)," +
+                "`nbt` " + itemColumnType + " NOT NULL," +
+                "`created_at` BIGINT NOT NULL," +
+                "`comment` " + textColumnType + "," +
+                "`is_deleted` BOOLEAN NOT NULL DEFAULT FALSE" +
+                ");";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(versionsSql);
+        }
+
+        ensureIndexExists(connection, versionsTable, "idx_" + versionsTable + "_item", "`item_name`", false);
+        ensureIndexExists(connection, versionsTable, "idx_" + versionsTable + "_uniq", "`item_name`,`version`", true);
+
+        String auditSql = "CREATE TABLE IF NOT EXISTS `" + auditTable + "` (" +
+                "`id` " + idDefinition + "," +
+                "`action` VARCHAR(64) NOT NULL," +
+                "`item_name` VARCHAR(128)," +
+                "`actor` VARCHAR(64)," +
+                "`details` " + textColumnType + "," +
+                "`created_at` BIGINT NOT NULL" +
+                ");";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(auditSql);
+        }
+
+        ensureIndexExists(connection, auditTable, "idx_" + auditTable + "_created", "`created_at`", false);
+    }
+
+    private boolean columnExists(Connection connection, String column) throws SQLException {
+        // try exact table name
+        if (hasColumn(connection, table, column)) {
+            return true;
+        }
+        // try upper / lower case variants (some DBs fold case differently)
+        if (hasColumn(connection, table.toUpperCase(Locale.ROOT), column)) {
+            return true;
+        }
+        return hasColumn(connection, table.toLowerCase(Locale.ROOT), column);
+    }
+
+    // Low-level check über DatabaseMetaData.getColumns
+    private boolean hasColumn(Connection connection, String tableName, String column) throws SQLException {
+        // getColumns: (catalog, schemaPattern, tableNamePattern, columnNamePattern)
+        // catalog kann null sein; für H2/MySQL es klappt in den meisten Fällen mit connection.getCatalog()
+        try (ResultSet rs = connection.getMetaData().getColumns(connection.getCatalog(), null, tableName, column)) {
+            return rs.next();
+        } catch (SQLException ex) {
+            // manche Treiber werfen, statt einfach ein leeres ResultSet zurückzugeben
+            // im Fehlerfall gehen wir davon aus, dass die Spalte nicht existiert
+            return false;
+        }
+    }
+
+    @Override
+    public long saveItem(ItemRecord record, String serialized, String editor, String comment) throws SQLException {
+        return inTransaction(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(dialect.upsertItem)) {
+                ps.setString(1, record.key());
+                bindItemValues(ps, 2, record, serialized);
+                ps.executeUpdate();
+            }
+            insertVersion(connection, record, serialized, editor, comment);
+            insertAudit(connection, "save", record.key(), editor, comment, record.updatedAt());
+            return stampSequence(connection, record.key());
+        });
+    }
+
+    @Override
+    public long saveItemIfUnchanged(ItemRecord record, long expectedSequence, String serialized, String editor, String comment) throws SQLException {
+        return inTransaction(connection -> {
+            int updated;
+            try (PreparedStatement ps = connection.prepareStatement(dialect.compareAndSetItem)) {
+                bindItemValues(ps, 1, record, serialized);
+                ps.setString(8, record.key());
+                ps.setLong(9, expectedSequence);
+                updated = ps.executeUpdate();
+            }
+            if (updated == 0) {
+                // scheitert ohne die Sequenzzeile je gesperrt zu haben
+                throw new ItemConflictException(record.key(), expectedSequence);
+            }
+            insertVersion(connection, record, serialized, editor, comment);
+            insertAudit(connection, "save", record.key(), editor, comment, record.updatedAt());
+            return stampSequence(connection, record.key());
+        });
+    }
+
+    // Spalten item .. is_deleted, beginnend bei Parameter first
+    private static void bindItemValues(PreparedStatement ps, int first, ItemRecord record, String serialized) throws SQLException {
+        ps.setString(first, serialized);
+        ps.setString(first + 1, record.displayName());
+        ps.setString(first + 2, RecordColumns.loreToColumn(record.lore()));
+        if (record.customModelData() == null) {
+            ps.setNull(first + 3, Types.INTEGER);
+        } else {
+            ps.setInt(first + 3, record.customModelData());
+        }
+        ps.setString(first + 4, RecordColumns.enchantmentsToColumn(record.enchantments()));
+        ps.setLong(first + 5, record.updatedAt());
+        ps.setBoolean(first + 6, record.deleted());
+    }
+
+    @Override
+    public boolean markDeleted(ItemRecord record, long timestamp, String serialized, String editor, String comment) throws SQLException {
+        return inTransaction(connection -> {
+            int updated;
+            try (PreparedStatement ps = connection.prepareStatement(dialect.markDeleted)) {
+                ps.setLong(1, timestamp);
+                ps.setString(2, record.key());
+                updated = ps.executeUpdate();
+            }
+            if (updated > 0) {
+                ItemRecord deleted = record.markDeleted(timestamp);
+                insertVersion(connection, deleted, serialized, editor, comment);
+                insertAudit(connection, "delete", record.key(), editor, comment, timestamp);
+                stampSequence(connection, record.key());
+            }
+            return updated > 0;
+        });
+    }
+
+    @Override
+    public long markDeletedIfUnchanged(ItemRecord record, long expectedSequence, long timestamp, String serialized, String editor, String comment) throws SQLException {
+        return inTransaction(connection -> {
+            int updated;
+            try (PreparedStatement ps = connection.prepareStatement(dialect.compareAndDelete)) {
+                ps.setLong(1, timestamp);
+                ps.setString(2, record.key());
+                ps.setLong(3, expectedSequence);
+                updated = ps.executeUpdate();
+            }
+            if (updated == 0) {
+                throw new ItemConflictException(record.key(), expectedSequence);
+            }
+            insertVersion(connection, record.markDeleted(timestamp), serialized, editor, comment);
+            insertAudit(connection, "delete", record.key(), editor, comment, timestamp);
+            return stampSequence(connection, record.key());
+        });
+    }
+
+    @Override
+    public List<ItemRecord> loadAllItems() throws SQLException {
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(dialect.selectAll)) {
+                ps.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<ItemRecord> records = new ArrayList<>();
+                    while (rs.next()) {
+                        records.add(mapRecord(rs));
+                    }
+                    return records;
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the sequence and the rows in one transaction on one connection. Two separate reads could go to
+     * different replicas, and a cursor from a replica that is ahead would skip changes the other one lacked.
+     */
+    @Override
+    public ItemSnapshot loadSnapshot() throws SQLException {
+        return read(connection -> {
+            boolean previousAutoCommit = connection.getAutoCommit();
+            int previousIsolation = connection.getTransactionIsolation();
+            connection.setAutoCommit(false);
+            try {
+                connection.setTransactionIsolation(dialect.snapshotIsolation());
+                long sequence;
+                try (PreparedStatement ps = connection.prepareStatement(dialect.currentSequence);
+                     ResultSet rs = ps.executeQuery()) {
+                    sequence = rs.next() ? rs.getLong(1) : 0L;
+                }
+                List<ItemRecord> records = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(dialect.selectAll)) {
+                    ps.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            records.add(mapRecord(rs));
+                        }
+                    }
+                }
+                connection.commit();
+                return new ItemSnapshot(sequence, records);
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setTransactionIsolation(previousIsolation);
+                connection.setAutoCommit(previousAutoCommit);
+            }
+        });
+    }
+
+    @Override
+    public long currentSequence() throws SQLException {
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(dialect.currentSequence);
+                 ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    @Override
+    public List<ItemRecord> fetchChanges(long sinceSequence) throws SQLException {
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(dialect.selectChanges)) {
+                ps.setLong(1, sinceSequence);
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<ItemRecord> changes = new ArrayList<>();
+                    while (rs.next()) {
+                        changes.add(mapRecord(rs));
+                    }
+                    return changes;
+                }
+            }
+        });
+    }
+
+    @Override
+    public Optional<ItemRecord> fetchItem(String key) throws SQLException {
+        return readPrimary(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(dialect.selectItem)) {
+                ps.setString(1, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? Optional.of(mapRecord(rs)) : Optional.empty();
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<ItemVersion> fetchHistory(String key, int limit) throws SQLException {
+        String sql = limit > 0 ? dialect.selectHistoryLimited : dialect.selectHistory;
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, key);
+                if (limit > 0) {
+                    ps.setInt(2, limit);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<ItemVersion> versions = new ArrayList<>();
+                    while (rs.next()) {
+                        versions.add(mapVersion(rs));
+                    }
+                    return versions;
+                }
+            }
+        });
+    }
+
+    @Override
+    public Optional<ItemVersion> fetchVersion(String key, int version) throws SQLException {
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(dialect.selectVersion)) {
+                ps.setString(1, key);
+                ps.setInt(2, version);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapVersion(rs));
+                    }
+                    return Optional.empty();
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<ItemRecord> search(String query, Integer customModelData, int limit) throws SQLException {
+        String sql = dialect.search(customModelData != null, limit > 0);
+        String like = "%" + query.toLowerCase(Locale.ROOT) + "%";
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, like);
+                ps.setString(2, like);
+                ps.setString(3, like);
+                int index = 4;
+                if (customModelData != null) {
+                    ps.setInt(index++, customModelData);
+                }
+                if (limit > 0) {
+                    ps.setInt(index, limit);
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<ItemRecord> results = new ArrayList<>();
+                    while (rs.next()) {
+                        results.add(mapRecord(rs));
+                    }
+                    return results;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void recordAudit(String action, String itemName, String editor, String details, long timestamp) throws SQLException {
+        inTransaction(connection -> {
+            insertAudit(connection, action, itemName, editor, details, timestamp);
+            return null;
+        });
+    }
+
+    protected void insertVersion(Connection connection, ItemRecord record, String serialized, String editor, String comment) throws SQLException {
+        int nextVersion = 1;
+        try (PreparedStatement ps = connection.prepareStatement(dialect.nextVersion)) {
+            ps.setString(1, record.key());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    nextVersion = rs.getInt(1) + 1;
+                }
+            }
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(dialect.insertVersion)) {
+            ps.setString(1, record.key());
+            ps.setInt(2, nextVersion);
+            if (editor == null) {
+                ps.setNull(3, Types.VARCHAR);
+            } else {
+                ps.setString(3, editor);
+            }
+            ps.setString(4, serialized);
+            ps.setLong(5, record.updatedAt());
+            if (comment == null) {
+                ps.setNull(6, Types.VARCHAR);
+            } else {
+                ps.setString(6, comment);
+            }
+            ps.setBoolean(7, record.deleted());
+            ps.executeUpdate();
+        }
+    }
+
+    protected void insertAudit(Connection connection, String action, String itemName, String editor, String details, long timestamp) throws SQLException {
+        if (action == null || action.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(dialect.insertAudit)) {
+            ps.setString(1, action);
+            if (itemName == null) {
+                ps.setNull(2, Types.VARCHAR);
+            } else {
+                ps.setString(2, itemName);
+            }
+            if (editor == null) {
+                ps.setNull(3, Types.VARCHAR);
+            } else {
+                ps.setString(3, editor);
+            }
+            if (details == null) {
+                ps.setNull(4, Types.VARCHAR);
+            } else {
+                ps.setString(4, details);
+            }
+            ps.setLong(5, timestamp);
+            ps.executeUpdate();
+        }
+    }
+
+    protected ItemVersion mapVersion(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        String itemName = rs.getString("item_name");
+        int version = rs.getInt("version");
+        String editor = rs.getString("editor");
+        String nbt = rs.getString("nbt");
+        long createdAt = rs.getLong("created_at");
+        String comment = rs.getString("comment");
+        boolean deleted = rs.getBoolean("is_deleted");
+        return new ItemVersion(id, itemName, version, editor, nbt, createdAt, comment, deleted);
+    }
+
+    protected ItemRecord mapRecord(ResultSet rs) throws SQLException {
+        String key = rs.getString("name");
+        ItemStack item = RecordColumns.decodeItem(key, rs.getString("item"));
+
+        String display = rs.getString("display_name");
+        List<String> lore = RecordColumns.columnToLore(rs.getString("lore"));
+
+        Integer cmd = null;
+        Object cmdObject = rs.getObject("custom_model_data");
+        if (cmdObject != null) {
+            cmd = rs.getInt("custom_model_data");
+        }
+
+        Map<String, Integer> enchantments = RecordColumns.columnToEnchantments(rs.getString("enchantments"));
+        long updatedAt = rs.getLong("updated_at");
+        boolean deleted = rs.getBoolean("is_deleted");
+        long sequence = rs.getLong("change_seq");
+
+        return new ItemRecord(key, item, display, lore, cmd, enchantments, updatedAt, deleted, sequence);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> out = new LinkedHashMap<>();
+        addPoolMetrics(out, "pool", dataSource);
+        return out;
+    }
+
+    protected static void addPoolMetrics(Map<String, Number> out, String prefix, HikariDataSource source) {
+        if (source == null || source.isClosed()) {
+            return;
+        }
+        HikariPoolMXBean pool = source.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+        out.put(prefix + ".active", pool.getActiveConnections());
+        out.put(prefix + ".idle", pool.getIdleConnections());
+        out.put(prefix + ".total", pool.getTotalConnections());
+        out.put(prefix + ".waiting", pool.getThreadsAwaitingConnection());
+    }
+
+    @Override
+    public void close() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @FunctionalInterface
+    protected interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,262 @@
+package net.devvoxel.itemDB.data.backend;
+
+import com.zaxxer.hikari.HikariConfig;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.DatabaseType;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SQLite engine. The database runs in WAL mode with exactly one writer connection owned by a
+ * dedicated thread; writes are queued and committed in groups (one savepoint per caller, one commit
+ * per batch). Reads use a separate pool of query-only connections which never wait for the writer.
+ */
+public class SqliteStorageBackend extends SqlStorageBackend {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final String IN_MEMORY = ":memory:";
+
+    private final BlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong tasks = new AtomicLong();
+
+    private String jdbcUrl;
+    private Connection writer;
+    private Thread writerThread;
+    private volatile boolean running;
+    private int maxBatch;
+    private int busyTimeoutMillis;
+
+    public SqliteStorageBackend(ItemDB plugin) {
+        super(plugin, DatabaseType.SQLITE);
+    }
+
+    @Override
+    public void connect(ConfigurationSection cfg) throws SQLException {
+        plugin.getDataFolder().mkdirs();
+        String file = cfg.getString("File", "itemdb.sqlite");
+        // gemeinsamer Cache, damit Writer und Lesepool dieselbe In-Memory-DB sehen; lebt solange der Writer offen ist
+        this.jdbcUrl = IN_MEMORY.equals(file)
+                ? "jdbc:sqlite:file:itemdb-" + Integer.toHexString(System.identityHashCode(this)) + "?mode=memory&cache=shared"
+                : "jdbc:sqlite:" + plugin.getDataFolder().toPath().resolve(file);
+        this.maxBatch = Math.max(1, cfg.getInt("SqliteMaxBatch", 64));
+        this.busyTimeoutMillis = Math.max(0, cfg.getInt("SqliteBusyTimeoutMillis", 5000));
+
+        openWriter(cfg);
+        // Lesepool und Schema erst nach dem Writer, damit die Datei bereits im WAL-Modus existiert
+        super.connect(cfg);
+    }
+
+    private void openWriter(ConfigurationSection cfg) throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException ex) {
+            throw new SQLException("SQLite driver not available", ex);
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("foreign_keys", "true");
+        this.writer = DriverManager.getConnection(jdbcUrl, properties);
+
+        String journalMode = cfg.getString("SqliteJournalMode", "WAL").toUpperCase(Locale.ROOT);
+        String synchronous = cfg.getString("SqliteSynchronous", "NORMAL").toUpperCase(Locale.ROOT);
+        try (Statement statement = writer.createStatement()) {
+            statement.execute("PRAGMA journal_mode = " + journalMode);
+            statement.execute("PRAGMA synchronous = " + synchronous);
+            statement.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            statement.execute("PRAGMA cache_size = " + cacheSizePragma(cfg));
+            statement.execute("PRAGMA mmap_size = " + mmapSizeBytes(cfg));
+            statement.execute("PRAGMA temp_store = MEMORY");
+        }
+        writer.setAutoCommit(false);
+
+        this.running = true;
+        this.writerThread = new Thread(this::runWriter, "ItemDB-SQLiteWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    protected void configurePool(HikariConfig hikariConfig, ConfigurationSection cfg) {
+        int readers = Math.max(1, cfg.getInt("SqliteReadPoolSize", 4));
+        hikariConfig.setJdbcUrl(jdbcUrl);
+        hikariConfig.setDriverClassName("org.sqlite.JDBC");
+        hikariConfig.setPoolName("ItemDBPool-read");
+        hikariConfig.setMaximumPoolSize(readers);
+        hikariConfig.setMinimumIdle(1);
+        hikariConfig.addDataSourceProperty("foreign_keys", "true");
+        hikariConfig.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMillis));
+        hikariConfig.addDataSourceProperty("cache_size", String.valueOf(cacheSizePragma(cfg)));
+        hikariConfig.addDataSourceProperty("mmap_size", String.valueOf(mmapSizeBytes(cfg)));
+        hikariConfig.setConnectionInitSql("PRAGMA query_only = ON");
+    }
+
+    // negativer Wert = Größe in KiB statt Seitenanzahl
+    private static long cacheSizePragma(ConfigurationSection cfg) {
+        return -Math.max(1, cfg.getLong("SqliteCacheSizeMb", 16)) * 1024L;
+    }
+
+    private static long mmapSizeBytes(ConfigurationSection cfg) {
+        return Math.max(0, cfg.getLong("SqliteMmapSizeMb", 64)) * 1024L * 1024L;
+    }
+
+    @Override
+    protected Connection readConnection() throws SQLException {
+        if (dataSource == null) {
+            throw new SQLException("Database not initialised");
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Direct connection outside the writer queue for callers of {@link #getConnection()}. It competes for
+     * the SQLite write lock and waits up to the busy timeout.
+     */
+    @Override
+    protected Connection writeConnection() throws SQLException {
+        if (jdbcUrl == null) {
+            throw new SQLException("Database not initialised");
+        }
+        Properties properties = new Properties();
+        properties.setProperty("foreign_keys", "true");
+        properties.setProperty("busy_timeout", String.valueOf(busyTimeoutMillis));
+        return DriverManager.getConnection(jdbcUrl, properties);
+    }
+
+    @Override
+    protected <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        if (Thread.currentThread() == writerThread) {
+            return work.run(writer);
+        }
+        if (!running) {
+            throw new SQLException("SQLite writer is not running");
+        }
+        WriteTask<T> task = new WriteTask<>(work, new CompletableFuture<>(), new AtomicLong());
+        long queuedAt = System.nanoTime();
+        if (!queue.offer(task)) {
+            throw new SQLException("SQLite write queue is full (" + QUEUE_CAPACITY + " pending writes)");
+        }
+        try {
+            T result = task.future().get();
+            // Zeit in der Warteschlange des Writers zählt als Wartezeit auf eine Verbindung
+            addPoolWait(task.startedAt().get() - queuedAt);
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for SQLite write", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("SQLite write failed", ex.getCause());
+        }
+    }
+
+    private void runWriter() {
+        List<WriteTask<?>> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                WriteTask<?> first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                commitBatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        WriteTask<?> leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future().completeExceptionally(new SQLException("SQLite writer stopped"));
+        }
+    }
+
+    private void commitBatch(List<WriteTask<?>> batch) {
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        try {
+            for (WriteTask<?> task : batch) {
+                // Savepoint pro Aufrufer: ein Fehler rollt nur dessen Änderungen zurück, nicht den ganzen Batch
+                Savepoint savepoint = writer.setSavepoint();
+                try {
+                    completions.add(task.runOn(writer));
+                    writer.releaseSavepoint(savepoint);
+                } catch (SQLException | RuntimeException ex) {
+                    writer.rollback(savepoint);
+                    writer.releaseSavepoint(savepoint);
+                    task.future().completeExceptionally(ex);
+                }
+            }
+            writer.commit();
+            batches.incrementAndGet();
+            tasks.addAndGet(batch.size());
+            completions.forEach(Runnable::run);
+        } catch (SQLException ex) {
+            try {
+                writer.rollback();
+            } catch (SQLException ignored) {
+            }
+            for (WriteTask<?> task : batch) {
+                task.future().completeExceptionally(ex);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> out = super.metrics();
+        out.put("writer.queue", queue.size());
+        out.put("writer.batches", batches.get());
+        out.put("writer.tasks", tasks.get());
+        return out;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (SQLException ex) {
+                plugin.getLogger().warning("Failed to close SQLite writer: " + ex.getMessage());
+            }
+        }
+        super.close();
+    }
+
+    private record WriteTask<T>(SqlWork<T> work, CompletableFuture<T> future, AtomicLong startedAt) {
+
+        Runnable runOn(Connection connection) throws SQLException {
+            startedAt.set(System.nanoTime());
+            T result = work.run(connection);
+            return () -> future.complete(result);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package net.devvoxel.itemDB.data.backend;
+
+import net.devvoxel.itemDB.data.ItemConflictException;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.data.ItemSnapshot;
+import net.devvoxel.itemDB.data.ItemVersion;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage engine behind {@link net.devvoxel.itemDB.data.Database}. Each implementation owns its own
+ * connections, schema/indexes and read strategy; failures are reported as {@link SQLException} regardless
+ * of the underlying driver so callers keep a single error path.
+ */
+public interface StorageBackend {
+
+    void connect(ConfigurationSection cfg) throws SQLException;
+
+    /**
+     * Stores the record and returns the change sequence assigned to it.
+     */
+    long saveItem(ItemRecord record, String serialized, String editor, String comment) throws SQLException;
+
+    /**
+     * Stores the record only if the stored item is not deleted and still carries {@code expectedSequence}.
+     * Returns the new change sequence, or throws {@link ItemConflictException} if another write came first.
+     */
+    long saveItemIfUnchanged(ItemRecord record, long expectedSequence, String serialized, String editor, String comment) throws SQLException;
+
+    boolean markDeleted(ItemRecord record, long timestamp, String serialized, String editor, String comment) throws SQLException;
+
+    /**
+     * Deletes the item only if it is not deleted yet and still carries {@code expectedSequence}, like
+     * {@link #saveItemIfUnchanged}. Returns the change sequence of the deletion.
+     */
+    long markDeletedIfUnchanged(ItemRecord record, long expectedSequence, long timestamp, String serialized, String editor, String comment) throws SQLException;
+
+    List<ItemRecord> loadAllItems() throws SQLException;
+
+    /**
+     * The stored items and the change sequence they are complete up to, read so that no change can fall
+     * between the two. The default reads the sequence first; backends with replicas read both from one
+     * consistent view.
+     */
+    default ItemSnapshot loadSnapshot() throws SQLException {
+        long sequence = currentSequence();
+        return new ItemSnapshot(sequence, loadAllItems());
+    }
+
+    /**
+     * Highest change sequence whose write is visible to readers. The SQL and local backends hand out
+     * sequences in commit order, so every change up to it is visible as well; MongoDB timestamps can become
+     * visible slightly out of order, which {@link #fetchChanges(long)} covers by reading an overlap window.
+     */
+    long currentSequence() throws SQLException;
+
+    /**
+     * Records (including deleted ones) changed after the given change sequence, in sequence order. May also
+     * return records at or below {@code sinceSequence} that the caller has already seen.
+     */
+    List<ItemRecord> fetchChanges(long sinceSequence) throws SQLException;
+
+    /**
+     * The stored record of {@code key} with its change sequence, deleted ones included. Read from the
+     * primary, so after a compare-and-set conflict it shows the write that won.
+     */
+    Optional<ItemRecord> fetchItem(String key) throws SQLException;
+
+    List<ItemVersion> fetchHistory(String key, int limit) throws SQLException;
+
+    Optional<ItemVersion> fetchVersion(String key, int version) throws SQLException;
+
+    List<ItemRecord> search(String query, Integer customModelData, int limit) throws SQLException;
+
+    void recordAudit(String action, String itemName, String editor, String details, long timestamp) throws SQLException;
+
+    /**
+     * Starts pushing committed item changes to {@code listener} as they happen. Returns {@code false} when
+     * the backend or the deployment cannot push, in which case callers keep polling {@link #fetchChanges(long)}.
+     */
+    default boolean subscribeChanges(ChangeListener listener) {
+        return false;
+    }
+
+    /**
+     * Backend specific figures (pool usage, cursor sizes, ...) for diagnostics.
+     */
+    default Map<String, Number> metrics() {
+        return Map.of();
+    }
+
+    /**
+     * Statement shape behind a {@code Database} operation name (SQL with placeholders, Mongo filter, ...)
+     * for the slow operation log.
+     */
+    default String fingerprint(String operation) {
+        return operation;
+    }
+
+    /**
+     * Time the calling thread spent waiting for a connection (or writer slot) since the last call, then resets it.
+     */
+    default long takePoolWaitNanos() {
+        return 0L;
+    }
+
+    void close();
+
+    /**
+     * Receives pushed changes. Callbacks run on the backend's own thread.
+     */
+    interface ChangeListener {
+
+        /** The feed is (re)connected; changes made while it was down have to be fetched by polling once. */
+        void onSubscribed();
+
+        void onChange(ItemRecord record);
+
+        /** The feed stopped; the backend retries on its own, until then callers should poll. */
+        void onInterrupted(Exception cause);
+    }
+}
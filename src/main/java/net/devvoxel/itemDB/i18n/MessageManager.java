@@ -6,7 +6,9 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MessageManager {
     private final ItemDB plugin;
@@ -14,6 +16,8 @@ public class MessageManager {
     private FileConfiguration cfg;
     private String prefix;
     private String guiTitle;
+    private volatile Map<String, MessageTemplate> messages = Map.of();
+    private volatile Map<String, List<MessageTemplate>> lists = Map.of();
 
     public MessageManager(ItemDB plugin) {
         this.plugin = plugin;
@@ -28,16 +32,58 @@ public class MessageManager {
         // inject dynamic values into messages.yml fields if referenced
         cfg.set("gui-title", cfg.getString("gui-title", "{gui_title}")
                 .replace("{gui_title}", guiTitle));
+        compile();
+    }
+
+    // einmal pro Reload statt bei jeder Nachricht Präfix und Farbcodes auflösen
+    private void compile() {
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        Map<String, List<MessageTemplate>> compiledLists = new HashMap<>();
+        for (String key : cfg.getKeys(true)) {
+            if (cfg.isList(key)) {
+                compiledLists.put(key, cfg.getStringList(key).stream()
+                        .map(line -> MessageTemplate.compile(color(applyPrefix(line))))
+                        .toList());
+            } else if (!cfg.isConfigurationSection(key)) {
+                compiled.put(key, MessageTemplate.compile(color(applyPrefix(cfg.getString(key)))));
+            }
+        }
+        this.messages = Map.copyOf(compiled);
+        this.lists = Map.copyOf(compiledLists);
+    }
+
+    public MessageTemplate template(String key) {
+        MessageTemplate template = messages.get(key);
+        return template != null ? template : MessageTemplate.compile(color(applyPrefix(key)));
     }
 
     public String get(String key) {
-        String s = cfg.getString(key, key);
-        return color(applyPrefix(s));
+        return template(key).text();
+    }
+
+    /** The message with its placeholders filled from name/value pairs, e.g. {@code format("item-added", "name", name)}. */
+    public String format(String key, Object... placeholders) {
+        return template(key).render(placeholders);
+    }
+
+    public List<MessageTemplate> templates(String key) {
+        return lists.getOrDefault(key, List.of());
     }
 
     public List<String> getList(String key) {
-        List<String> list = cfg.getStringList(key);
-        return list.stream().map(this::applyPrefix).map(MessageManager::color).toList();
+        return templates(key).stream().map(MessageTemplate::text).toList();
+    }
+
+    public List<String> formatList(String key, Object... placeholders) {
+        List<MessageTemplate> templates = templates(key);
+        if (templates.isEmpty()) {
+            return List.of();
+        }
+        String[] lines = new String[templates.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = templates.get(i).render(placeholders);
+        }
+        return List.of(lines);
     }
 
     private String applyPrefix(String s) {
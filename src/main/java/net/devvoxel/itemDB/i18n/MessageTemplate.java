@@ -0,0 +1,118 @@
+package net.devvoxel.itemDB.i18n;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message split once into literal parts (prefix and colour codes already applied) and {@code {placeholder}}
+ * slots. Rendering appends the parts and values into a per-thread builder instead of one
+ * {@code String.replace} per placeholder. Values are inserted as they are, so colour codes or braces in an
+ * item name are neither translated nor treated as placeholders.
+ */
+public final class MessageTemplate {
+
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    // literals.length == slots.length + 1, Platzhalter stehen zwischen den Literalen
+    private final String[] literals;
+    private final String[] slots;
+    private final String text;
+
+    private MessageTemplate(String[] literals, String[] slots, String text) {
+        this.literals = literals;
+        this.slots = slots;
+        this.text = text;
+    }
+
+    /** Compiles an already coloured message. */
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int literalStart = 0;
+        int open = message.indexOf('{');
+        while (open >= 0) {
+            int close = placeholderEnd(message, open);
+            if (close < 0) {
+                open = message.indexOf('{', open + 1);
+                continue;
+            }
+            literals.add(message.substring(literalStart, open));
+            slots.add(message.substring(open + 1, close));
+            literalStart = close + 1;
+            open = message.indexOf('{', literalStart);
+        }
+        literals.add(message.substring(literalStart));
+        return new MessageTemplate(literals.toArray(String[]::new), slots.toArray(String[]::new), message);
+    }
+
+    // nur {name} aus Buchstaben, Ziffern und _ gilt als Platzhalter
+    private static int placeholderEnd(String message, int open) {
+        for (int i = open + 1; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '}') {
+                return i > open + 1 ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /** The message with its placeholders left in place. */
+    public String text() {
+        return text;
+    }
+
+    public boolean hasPlaceholders() {
+        return slots.length > 0;
+    }
+
+    /**
+     * Renders the message with {@code placeholders} given as name/value pairs, e.g.
+     * {@code render("name", name, "version", 3)}. Placeholders without a value stay as {@code {name}}.
+     */
+    public String render(Object... placeholders) {
+        if (slots.length == 0) {
+            return text;
+        }
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            int index = indexOf(placeholders, slots[i]);
+            if (index < 0) {
+                out.append('{').append(slots[i]).append('}');
+            } else {
+                append(out, placeholders[index + 1]);
+            }
+        }
+        out.append(literals[slots.length]);
+        String rendered = out.toString();
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            BUILDER.remove();
+        }
+        return rendered;
+    }
+
+    // Zahlen direkt anhängen, ohne Zwischen-String
+    private static void append(StringBuilder out, Object value) {
+        if (value instanceof Integer number) {
+            out.append(number.intValue());
+        } else if (value instanceof Long number) {
+            out.append(number.longValue());
+        } else {
+            out.append(value);
+        }
+    }
+
+    private static int indexOf(Object[] placeholders, String slot) {
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            if (slot.equals(placeholders[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,122 +1,257 @@
 package net.devvoxel.itemDB.integration;
 
 import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.api.ItemSource;
+import net.devvoxel.itemDB.metrics.LatencyHistogram;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 import org.bukkit.inventory.ItemStack;
 
-import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
-public class ExternalItemProvider {
+/**
+ * Resolves ids of items that are not stored in ItemDB through the registered {@link ItemSource}s. An id
+ * {@code namespace:id} goes only to the source owning the namespace; other ids are tried on every source that
+ * accepts unprefixed ids, in registration order (ItemsAdder, Oraxen, then sources of other plugins).
+ * Resolved items are kept as templates for a while, and ids no source knows (typos, placeholders) are
+ * remembered as misses. Both caches are cleared when a source is added or removed or ItemsAdder/Oraxen reload.
+ */
+public class ExternalItemProvider implements Listener {
 
     private final ItemDB plugin;
-    private final boolean itemsAdderAvailable;
-    private final Method itemsAdderGetInstance;
-    private final Method itemsAdderGetItemStack;
+    private final List<ItemSource> sources = new CopyOnWriteArrayList<>();
+    private final Map<String, ItemSource> routes = new ConcurrentHashMap<>();
 
-    private final boolean oraxenAvailable;
-    private final Method oraxenGetItemById;
-    private final Method oraxenBuild;
+    private final ExpiringCache<ItemStack> templates;
+    private final ExpiringCache<Boolean> misses;
+    private final List<String> preload;
+    private final boolean preloadAsync;
 
     public ExternalItemProvider(ItemDB plugin) {
         this.plugin = plugin;
-        this.itemsAdderGetInstance = resolveMethod("dev.lone.itemsadder.api.CustomStack", "getInstance", String.class);
-        this.itemsAdderGetItemStack = resolveMethod("dev.lone.itemsadder.api.CustomStack", "getItemStack");
-        this.itemsAdderAvailable = plugin.getServer().getPluginManager().isPluginEnabled("ItemsAdder")
-                && this.itemsAdderGetInstance != null && this.itemsAdderGetItemStack != null;
 
-        this.oraxenGetItemById = resolveMethod("io.th0rgal.oraxen.api.OraxenItems", "getItemById", String.class);
-        this.oraxenBuild = resolveMethod("io.th0rgal.oraxen.items.OraxenItem", "build");
-        this.oraxenAvailable = plugin.getServer().getPluginManager().isPluginEnabled("Oraxen")
-                && this.oraxenGetItemById != null && this.oraxenBuild != null;
+        ConfigurationSection cfg = plugin.getConfig().getConfigurationSection("ExternalItems");
+        this.templates = new ExpiringCache<>(
+                cfg == null ? 512 : cfg.getInt("CacheSize", 512),
+                (cfg == null ? 300L : cfg.getLong("CacheTtlSeconds", 300L)) * 1000L);
+        this.misses = new ExpiringCache<>(
+                cfg == null ? 1024 : cfg.getInt("MissCacheSize", 1024),
+                (cfg == null ? 60L : cfg.getLong("MissCacheTtlSeconds", 60L)) * 1000L);
+        this.preload = cfg == null ? List.of() : List.copyOf(cfg.getStringList("Preload"));
+        this.preloadAsync = cfg == null || cfg.getBoolean("PreloadAsync", true);
 
-        if (itemsAdderAvailable) {
-            plugin.getLogger().info("ItemsAdder support enabled.");
+        ReflectiveItemSource itemsAdder = ReflectiveItemSource.itemsAdder(plugin);
+        if (itemsAdder != null) {
+            register(itemsAdder);
+            invalidateOn("dev.lone.itemsadder.api.Events.ItemsAdderLoadDataEvent");
         }
-        if (oraxenAvailable) {
-            plugin.getLogger().info("Oraxen support enabled.");
+        ReflectiveItemSource oraxen = ReflectiveItemSource.oraxen(plugin);
+        if (oraxen != null) {
+            register(oraxen);
+            invalidateOn("io.th0rgal.oraxen.api.events.OraxenItemsLoadedEvent");
         }
     }
 
-    private Method resolveMethod(String className, String methodName, Class<?>... parameterTypes) {
+    /** Adds a source; fails if one of its namespaces already belongs to another source. */
+    public synchronized void register(ItemSource source) {
+        if (sources.contains(source)) {
+            return;
+        }
+        List<String> namespaces = source.namespaces().stream()
+                .map(namespace -> namespace.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        for (String namespace : namespaces) {
+            if (namespace.isEmpty() || namespace.indexOf(':') >= 0) {
+                throw new IllegalArgumentException("Invalid namespace '" + namespace + "' of item source " + source.name());
+            }
+            ItemSource owner = routes.get(namespace);
+            if (owner != null) {
+                throw new IllegalStateException("Namespace '" + namespace + "' already belongs to item source " + owner.name());
+            }
+        }
+        sources.add(source);
+        namespaces.forEach(namespace -> routes.put(namespace, source));
+        plugin.getLogger().info("Item source enabled: " + source.name()
+                + (namespaces.isEmpty() ? "" : " (" + String.join(", ", namespaces) + ")"));
+        invalidate();
+    }
+
+    public synchronized boolean unregister(ItemSource source) {
+        if (!sources.remove(source)) {
+            return false;
+        }
+        routes.values().removeIf(owner -> owner == source);
+        plugin.getLogger().info("Item source disabled: " + source.name());
+        invalidate();
+        return true;
+    }
+
+    // Events per Name registrieren, die Plugins sind nur optional vorhanden
+    private void invalidateOn(String eventClassName) {
         try {
-            Class<?> clazz = Class.forName(className);
-            Method method = clazz.getMethod(methodName, parameterTypes);
-            method.setAccessible(true);
-            return method;
-        } catch (ClassNotFoundException ignored) {
-            return null;
-        } catch (NoSuchMethodException ex) {
-            plugin.getLogger().log(Level.WARNING, "Missing method " + methodName + " on " + className + ": " + ex.getMessage());
-            return null;
+            Class<? extends Event> eventClass = Class.forName(eventClassName).asSubclass(Event.class);
+            plugin.getServer().getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR,
+                    (listener, event) -> {
+                        if (eventClass.isInstance(event)) {
+                            invalidate();
+                        }
+                    }, plugin);
+        } catch (ClassNotFoundException | ClassCastException ex) {
+            plugin.getLogger().warning("Cannot listen for " + eventClassName + ", cached external items only expire by time.");
+        }
+    }
+
+    /**
+     * Drops all cached templates and misses, e.g. after ItemsAdder or Oraxen reloaded their items, and
+     * resolves the configured {@code ExternalItems.Preload} ids again.
+     */
+    public void invalidate() {
+        templates.clear();
+        misses.clear();
+        schedulePreload();
+    }
+
+    // einen Tick später, damit alle Plugins aktiviert sind
+    private void schedulePreload() {
+        if (preload.isEmpty() || sources.isEmpty() || !plugin.isEnabled()) {
+            return;
+        }
+        Runnable task = () -> {
+            long found = preload.stream().filter(id -> resolve(id).isPresent()).count();
+            plugin.getLogger().fine("Preloaded " + found + "/" + preload.size() + " external items");
+        };
+        if (preloadAsync) {
+            Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, task, 1L);
+        } else {
+            Bukkit.getScheduler().runTaskLater(plugin, task, 1L);
         }
     }
 
     public Optional<ItemStack> resolve(String rawId) {
-        if (rawId == null || rawId.isBlank()) {
+        if (rawId == null || rawId.isBlank() || sources.isEmpty()) {
             return Optional.empty();
         }
         String id = rawId.trim();
-        Optional<ItemStack> itemsAdder = resolveItemsAdder(id);
-        if (itemsAdder.isPresent()) {
-            return itemsAdder.map(ItemStack::clone);
+        ItemStack template = templates.get(id);
+        if (template != null) {
+            plugin.metrics().increment("external.cache.hits");
+            return Optional.of(template.clone());
         }
-        Optional<ItemStack> oraxen = resolveOraxen(id);
-        return oraxen.map(ItemStack::clone);
-    }
-
-    private Optional<ItemStack> resolveItemsAdder(String id) {
-        if (!itemsAdderAvailable) {
+        if (misses.get(id) != null) {
+            plugin.metrics().increment("external.cache.misses_known");
             return Optional.empty();
         }
-        try {
-            Object customStack = itemsAdderGetInstance.invoke(null, id);
-            if (customStack == null) {
-                return Optional.empty();
-            }
-            Object stack = itemsAdderGetItemStack.invoke(customStack);
-            if (stack instanceof ItemStack itemStack) {
-                return Optional.of(itemStack);
-            }
-        } catch (ReflectiveOperationException ex) {
-            plugin.getLogger().log(Level.WARNING, "Failed to resolve ItemsAdder item " + id + ": " + ex.getMessage());
+
+        plugin.metrics().increment("external.lookups");
+        Optional<ItemStack> resolved = route(id);
+        if (resolved.isPresent()) {
+            templates.put(id, resolved.get().clone());
+            return resolved;
         }
+        misses.put(id, Boolean.TRUE);
         return Optional.empty();
     }
 
-    private Optional<ItemStack> resolveOraxen(String id) {
-        if (!oraxenAvailable) {
-            return Optional.empty();
+    private Optional<ItemStack> route(String id) {
+        int colon = id.indexOf(':');
+        if (colon > 0) {
+            ItemSource owner = routes.get(id.substring(0, colon).toLowerCase(Locale.ROOT));
+            if (owner != null) {
+                return lookup(owner, id.substring(colon + 1));
+            }
         }
-        try {
-            Object item = oraxenGetItemById.invoke(null, id);
-            if (item == null) {
-                return Optional.empty();
+        // Unbekannter Namespace: ItemsAdder-Ids wie "iasurvival:ruby" gehen unverändert durch
+        for (ItemSource source : sources) {
+            if (!source.acceptsUnprefixed()) {
+                continue;
             }
-            Object built = oraxenBuild.invoke(item);
-            if (built instanceof ItemStack stack) {
-                return Optional.of(stack);
+            Optional<ItemStack> resolved = lookup(source, id);
+            if (resolved.isPresent()) {
+                return resolved;
             }
-        } catch (ReflectiveOperationException ex) {
-            plugin.getLogger().log(Level.WARNING, "Failed to resolve Oraxen item " + id + ": " + ex.getMessage());
         }
         return Optional.empty();
     }
 
-    public String describeSources() {
-        if (itemsAdderAvailable && oraxenAvailable) {
-            return "ItemsAdder, Oraxen";
-        }
-        if (itemsAdderAvailable) {
-            return "ItemsAdder";
+    private Optional<ItemStack> lookup(ItemSource source, String id) {
+        String metric = "external." + source.name().toLowerCase(Locale.ROOT);
+        LatencyHistogram timer = plugin.metrics().timer(metric + ".resolve");
+        long start = System.nanoTime();
+        try {
+            Optional<ItemStack> resolved = source.resolve(id);
+            return resolved == null ? Optional.empty() : resolved;
+        } catch (RuntimeException ex) {
+            plugin.metrics().increment(metric + ".errors");
+            plugin.getLogger().log(Level.WARNING, "Item source " + source.name() + " failed to resolve " + id, ex);
+            return Optional.empty();
+        } finally {
+            timer.recordSince(start);
         }
-        if (oraxenAvailable) {
-            return "Oraxen";
+    }
+
+    public String describeSources() {
+        if (sources.isEmpty()) {
+            return "None";
         }
-        return "None";
+        return sources.stream().map(ItemSource::name).collect(Collectors.joining(", "));
     }
 
     public boolean hasAnyIntegration() {
-        return itemsAdderAvailable || oraxenAvailable;
+        return !sources.isEmpty();
+    }
+
+    /** Small LRU map whose entries also expire after a fixed time. */
+    private static final class ExpiringCache<V> {
+
+        private final int capacity;
+        private final long ttlMillis;
+        private final LinkedHashMap<String, Entry<V>> entries;
+
+        ExpiringCache(int capacity, long ttlMillis) {
+            this.capacity = Math.max(0, capacity);
+            this.ttlMillis = ttlMillis;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                    return size() > ExpiringCache.this.capacity;
+                }
+            };
+        }
+
+        synchronized V get(String key) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() >= entry.expiresAt()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(String key, V value) {
+            if (capacity > 0 && ttlMillis > 0) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        private record Entry<V>(V value, long expiresAt) {
+        }
     }
 }
@@ -2,22 +2,45 @@ package net.devvoxel.itemDB.integration;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.managers.ItemManager;
 import org.bukkit.OfflinePlayer;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * {@code %itemdb_...%} placeholders. Scoreboards and holograms ask for the same few placeholders many times
+ * per second, so results that depend on the item cache are memoized per parameter string until the cache
+ * changes ({@link ItemManager#cacheVersion()}); namespace counts are maintained by the ItemManager itself.
+ * <ul>
+ *     <li>{@code total}, {@code count}, {@code items}, {@code database_type}, {@code last_sync}</li>
+ *     <li>{@code exists_<item>}, {@code display_<item>}, {@code cmd_<item>}</li>
+ *     <li>{@code count_<namespace>} ({@code count_} alone: items without namespace)</li>
+ *     <li>{@code sync_lag}: milliseconds between the last change on another server and its arrival here,
+ *     based on both servers' clocks and therefore only accurate while they are synchronized</li>
+ * </ul>
+ */
 public class ItemDBPlaceholderExpansion extends PlaceholderExpansion {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
             .withZone(ZoneId.systemDefault());
+    // Parameter stammen aus Configs anderer Plugins; die Grenze greift nur bei ungewöhnlich vielen verschiedenen
+    private static final int MAX_MEMOIZED = 1024;
 
     private final ItemDB plugin;
+    private final String databaseType;
+    private final Map<String, Memo> memo = new ConcurrentHashMap<>();
+    private volatile Memo lastSync = new Memo(0L, "-");
+    private volatile Memo syncLag = new Memo(-1L, "-");
 
     public ItemDBPlaceholderExpansion(ItemDB plugin) {
         this.plugin = plugin;
+        this.databaseType = plugin.db().type().name().toLowerCase(Locale.ROOT);
     }
 
     @Override
@@ -50,26 +73,86 @@ public class ItemDBPlaceholderExpansion extends PlaceholderExpansion {
         if (params == null) {
             return "";
         }
+        String uncached = uncached(params);
+        if (uncached != null) {
+            return uncached;
+        }
+
+        ItemManager items = plugin.items();
+        long version = items.cacheVersion();
+        Memo cached = memo.get(params);
+        if (cached != null && cached.version() == version) {
+            return cached.value();
+        }
         String identifier = params.toLowerCase(Locale.ROOT);
+        uncached = uncached(identifier);
+        if (uncached != null) {
+            return uncached;
+        }
+        String value = resolve(items, identifier);
+        if (cached != null || memo.size() < MAX_MEMOIZED) {
+            memo.put(params, new Memo(version, value));
+        }
+        return value;
+    }
+
+    private String resolve(ItemManager items, String identifier) {
         return switch (identifier) {
-            case "total", "count", "items" -> String.valueOf(plugin.items().size());
-            case "database_type" -> plugin.db().type().name().toLowerCase(Locale.ROOT);
-            case "last_sync" -> formatLastSync();
+            case "total", "count", "items" -> String.valueOf(items.size());
             default -> {
                 if (identifier.startsWith("exists_")) {
-                    String item = identifier.substring("exists_".length());
-                    yield plugin.items().record(item).isPresent() ? "true" : "false";
+                    yield items.record(identifier.substring("exists_".length())).isPresent() ? "true" : "false";
+                }
+                if (identifier.startsWith("display_")) {
+                    yield items.record(identifier.substring("display_".length()))
+                            .map(ItemRecord::displayName)
+                            .orElse("-");
+                }
+                if (identifier.startsWith("cmd_")) {
+                    yield items.record(identifier.substring("cmd_".length()))
+                            .map(ItemRecord::customModelData)
+                            .map(String::valueOf)
+                            .orElse("-");
+                }
+                if (identifier.startsWith("count_")) {
+                    yield String.valueOf(items.namespaceCount(identifier.substring("count_".length())));
                 }
                 yield "";
             }
         };
     }
 
+    // hängen nicht an der Cache-Version, sondern an Zeitstempeln bzw. sind konstant
+    private String uncached(String identifier) {
+        return switch (identifier) {
+            case "database_type" -> databaseType;
+            case "last_sync" -> formatLastSync();
+            case "sync_lag" -> formatSyncLag();
+            default -> null;
+        };
+    }
+
     private String formatLastSync() {
-        long lastSync = plugin.items().lastSync();
-        if (lastSync <= 0) {
-            return "-";
+        long value = plugin.items().lastSync();
+        Memo current = lastSync;
+        if (current.version() != value) {
+            current = new Memo(value, value <= 0 ? "-" : FORMATTER.format(Instant.ofEpochMilli(value)));
+            lastSync = current;
         }
-        return FORMATTER.format(Instant.ofEpochMilli(lastSync));
+        return current.value();
+    }
+
+    private String formatSyncLag() {
+        long value = plugin.items().lastSyncLagMillis();
+        Memo current = syncLag;
+        if (current.version() != value) {
+            current = new Memo(value, value < 0 ? "-" : String.valueOf(value));
+            syncLag = current;
+        }
+        return current.value();
+    }
+
+    /** A formatted value and the state it was computed from. */
+    private record Memo(long version, String value) {
     }
 }
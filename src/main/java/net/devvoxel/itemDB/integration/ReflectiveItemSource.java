@@ -0,0 +1,104 @@
+package net.devvoxel.itemDB.integration;
+
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.api.ItemSource;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Built-in source for plugins we do not compile against: a static {@code lookup(String)} returning the
+ * plugin's item type and a no-arg method on it building the {@link ItemStack}. Both are method handles
+ * resolved once, so a lookup costs two direct calls instead of {@code Method.invoke}.
+ */
+final class ReflectiveItemSource implements ItemSource {
+
+    private static final MethodType LOOKUP_TYPE = MethodType.methodType(Object.class, String.class);
+    private static final MethodType BUILD_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final ItemDB plugin;
+    private final String name;
+    private final Set<String> namespaces;
+    private final MethodHandle lookup;
+    private final MethodHandle build;
+
+    private ReflectiveItemSource(ItemDB plugin, String name, Set<String> namespaces, MethodHandle lookup, MethodHandle build) {
+        this.plugin = plugin;
+        this.name = name;
+        this.namespaces = namespaces;
+        this.lookup = lookup;
+        this.build = build;
+    }
+
+    static ReflectiveItemSource itemsAdder(ItemDB plugin) {
+        return create(plugin, "ItemsAdder", Set.of("itemsadder", "ia"),
+                "dev.lone.itemsadder.api.CustomStack", "getInstance",
+                "dev.lone.itemsadder.api.CustomStack", "getItemStack");
+    }
+
+    static ReflectiveItemSource oraxen(ItemDB plugin) {
+        return create(plugin, "Oraxen", Set.of("oraxen"),
+                "io.th0rgal.oraxen.api.OraxenItems", "getItemById",
+                "io.th0rgal.oraxen.items.OraxenItem", "build");
+    }
+
+    /** {@code null} if the plugin is not enabled or its API does not have the expected methods. */
+    private static ReflectiveItemSource create(ItemDB plugin, String name, Set<String> namespaces,
+                                               String lookupClass, String lookupMethod,
+                                               String buildClass, String buildMethod) {
+        if (!plugin.getServer().getPluginManager().isPluginEnabled(name)) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup publicLookup = MethodHandles.publicLookup();
+            MethodHandle lookup = publicLookup
+                    .unreflect(Class.forName(lookupClass).getMethod(lookupMethod, String.class))
+                    .asType(LOOKUP_TYPE);
+            MethodHandle build = publicLookup
+                    .unreflect(Class.forName(buildClass).getMethod(buildMethod))
+                    .asType(BUILD_TYPE);
+            return new ReflectiveItemSource(plugin, name, namespaces, lookup, build);
+        } catch (ReflectiveOperationException ex) {
+            plugin.getLogger().log(Level.WARNING, name + " is enabled but its API is not supported: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Set<String> namespaces() {
+        return namespaces;
+    }
+
+    // Ohne Präfix wie bisher: erst ItemsAdder, dann Oraxen
+    @Override
+    public boolean acceptsUnprefixed() {
+        return true;
+    }
+
+    @Override
+    public Optional<ItemStack> resolve(String id) {
+        try {
+            Object item = (Object) lookup.invokeExact(id);
+            if (item == null) {
+                return Optional.empty();
+            }
+            Object built = (Object) build.invokeExact(item);
+            if (built instanceof ItemStack stack) {
+                return Optional.of(stack);
+            }
+        } catch (Throwable ex) {
+            plugin.getLogger().log(Level.WARNING, "Failed to resolve " + name + " item " + id + ": " + ex.getMessage());
+        }
+        return Optional.empty();
+    }
+}
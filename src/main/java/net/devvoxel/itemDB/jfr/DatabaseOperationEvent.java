@@ -0,0 +1,34 @@
+package net.devvoxel.itemDB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.devvoxel.itemdb.DatabaseOperation")
+@Label("Database Operation")
+@Category({"ItemDB", "Database"})
+@Description("A call from ItemDB into its storage backend")
+public class DatabaseOperationEvent extends Event {
+
+    @Label("Backend")
+    public String backend;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Item")
+    public String key;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Payload")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean success;
+}
@@ -0,0 +1,21 @@
+package net.devvoxel.itemDB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.devvoxel.itemdb.GuiOpen")
+@Label("Items GUI Open")
+@Category({"ItemDB", "GUI"})
+public class GuiOpenEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Page")
+    public int page;
+
+    @Label("Items Shown")
+    public int items;
+}
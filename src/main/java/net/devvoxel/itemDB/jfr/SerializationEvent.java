@@ -0,0 +1,23 @@
+package net.devvoxel.itemDB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.devvoxel.itemdb.ItemSerialization")
+@Label("Item Serialization")
+@Category({"ItemDB", "Serialization"})
+public class SerializationEvent extends Event {
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Item Type")
+    public String material;
+
+    @Label("Encoded Size")
+    @DataAmount
+    public long bytes;
+}
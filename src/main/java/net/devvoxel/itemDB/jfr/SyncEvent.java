@@ -0,0 +1,24 @@
+package net.devvoxel.itemDB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.devvoxel.itemdb.Sync")
+@Label("Item Sync")
+@Category({"ItemDB", "Sync"})
+@Description("Loading all items or applying changes made by other servers")
+public class SyncEvent extends Event {
+
+    @Label("Kind")
+    @Description("load, poll or push")
+    public String kind;
+
+    @Label("Changes")
+    public int changes;
+
+    @Label("Cursor")
+    public long cursor;
+}
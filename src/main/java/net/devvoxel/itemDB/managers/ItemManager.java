@@ -1,14 +1,23 @@
 package net.devvoxel.itemDB.managers;
 
 import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.api.ItemChange;
+import net.devvoxel.itemDB.api.ItemChangeListener;
+import net.devvoxel.itemDB.api.ItemView;
 import net.devvoxel.itemDB.data.Database;
+import net.devvoxel.itemDB.data.ItemConflictException;
 import net.devvoxel.itemDB.data.ItemRecord;
 import net.devvoxel.itemDB.data.ItemSerializer;
+import net.devvoxel.itemDB.data.ItemSnapshot;
 import net.devvoxel.itemDB.data.ItemVersion;
+import net.devvoxel.itemDB.data.WriteJournal;
+import net.devvoxel.itemDB.data.backend.StorageBackend;
 import net.devvoxel.itemDB.integration.ExternalItemProvider;
+import net.devvoxel.itemDB.jfr.SyncEvent;
 import net.devvoxel.itemDB.webhook.WebhookNotifier;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
@@ -18,10 +27,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -29,6 +40,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.zip.ZipEntry;
@@ -36,31 +52,70 @@ import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 public class ItemManager {
+    private static final int EDIT_LOCK_STRIPES = 64;
+    private static final int MAX_REBASE_ATTEMPTS = 3;
+
+    public enum UpdateResult { UPDATED, NOT_FOUND, CONFLICT, FAILED, UNAVAILABLE }
+
     private final ItemDB plugin;
     private final Database db;
     private final WebhookNotifier webhooks;
     private final ExternalItemProvider externalItems;
     private final ConcurrentMap<String, ItemRecord> cache = new ConcurrentHashMap<>();
+    // wird bei jeder Cache-Änderung mitgepflegt, damit Placeholder nicht zählen müssen
+    private final ConcurrentMap<String, AtomicInteger> namespaceCounts = new ConcurrentHashMap<>();
+    private final AtomicLong cacheVersion = new AtomicLong();
     private volatile long lastSync = 0L;
+    private volatile long lastSyncLagMillis = -1L;
+    // Change-Sequenz der Datenbank, nicht die Uhrzeit dieses Servers
+    private volatile long syncCursor = 0L;
+    // Polls, Push-Änderungen und Loads setzen syncCursor/lastSync nacheinander, nie aus älterem Stand
+    private final Object syncLock = new Object();
+    private volatile boolean pushActive;
+    private final List<ItemChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    // Bearbeitungen desselben Keys laufen auf diesem Server nacheinander, verschiedene Keys parallel
+    private final Lock[] editLocks = new Lock[EDIT_LOCK_STRIPES];
+    // null = Journal deaktiviert
+    private final WriteJournal journal;
+    private final int replayBatchSize;
+    // bereits übertragene Sequenz je Key, Basis für verkettete Journal-Einträge
+    private final Map<String, Long> replayedSequences = new ConcurrentHashMap<>();
+    private volatile boolean offline;
 
     public ItemManager(ItemDB plugin, Database db, WebhookNotifier webhooks, ExternalItemProvider externalItems) {
         this.plugin = plugin;
         this.db = db;
         this.webhooks = webhooks;
         this.externalItems = externalItems;
+        for (int i = 0; i < editLocks.length; i++) {
+            editLocks[i] = new ReentrantLock();
+        }
+        this.journal = openJournal();
+        this.replayBatchSize = Math.max(1, plugin.getConfig().getInt("Database.OfflineJournalReplayBatch", 100));
         load(true);
     }
 
     public void load(boolean logResult) {
+        SyncEvent event = new SyncEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            List<ItemRecord> all = db.loadAllItems();
-            cache.clear();
-            long maxTimestamp = 0;
-            for (ItemRecord record : all) {
-                cache.put(record.key(), record);
-                maxTimestamp = Math.max(maxTimestamp, record.updatedAt());
-            }
-            lastSync = maxTimestamp;
+            synchronized (syncLock) {
+                // Cursor und Items aus demselben Stand: alles bis dahin ist im Snapshot, spätere Änderungen holt sync()
+                ItemSnapshot snapshot = db.loadSnapshot();
+                long cursor = snapshot.sequence();
+                List<ItemRecord> all = snapshot.items();
+                cache.clear();
+                namespaceCounts.clear();
+                cacheVersion.incrementAndGet();
+                long maxTimestamp = 0;
+                for (ItemRecord record : all) {
+                    cachePut(record.key(), record);
+                    maxTimestamp = Math.max(maxTimestamp, record.updatedAt());
+                }
+                lastSync = maxTimestamp;
+                syncCursor = cursor;
+            }
             if (logResult) {
                 plugin.getLogger().info("Geladene Items aus DB: " + cache.size());
             }
@@ -68,28 +123,322 @@ public class ItemManager {
             plugin.getLogger().severe("Fehler beim Laden der Items: " + ex.getMessage());
             webhooks.notifyError("load", "Fehler beim Laden der Items", ex);
         }
+        overlayJournal();
+        plugin.metrics().timer("items.load").recordSince(start);
+        commitSyncEvent(event, "load", cache.size());
     }
 
-    public void sync() {
-        long since = lastSync;
+    private void commitSyncEvent(SyncEvent event, String kind, int changes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.changes = changes;
+            event.cursor = syncCursor;
+            event.commit();
+        }
+    }
+
+    private WriteJournal openJournal() {
+        if (!plugin.getConfig().getBoolean("Database.OfflineJournal", true)) {
+            return null;
+        }
+        WriteJournal opened = new WriteJournal(plugin.getDataFolder().toPath().resolve("journal.log"), plugin.getLogger());
         try {
-            List<ItemRecord> changes = db.fetchChanges(since);
-            long maxTimestamp = since;
-            for (ItemRecord change : changes) {
-                maxTimestamp = Math.max(maxTimestamp, change.updatedAt());
-                if (change.deleted()) {
-                    cache.remove(change.key());
+            opened.open();
+        } catch (IOException ex) {
+            plugin.getLogger().severe("Konnte Offline-Journal nicht öffnen, Änderungen werden nicht gepuffert: " + ex.getMessage());
+            return null;
+        }
+        if (!opened.isEmpty()) {
+            this.offline = true;
+            plugin.getLogger().warning(opened.size() + " Änderungen im Offline-Journal werden nach dem Verbindungsaufbau übertragen.");
+        }
+        return opened;
+    }
+
+    // noch nicht übertragene Änderungen über den geladenen Stand legen
+    private void overlayJournal() {
+        if (journal == null) {
+            return;
+        }
+        for (WriteJournal.Entry entry : journal.pending()) {
+            if (entry.operation() == WriteJournal.Operation.DELETE) {
+                cacheRemove(entry.key());
+                continue;
+            }
+            try {
+                ItemRecord record = ItemRecord.fromStack(entry.key(), ItemSerializer.deserialize(entry.nbt()), entry.timestamp(), false);
+                ItemRecord existing = cache.get(entry.key());
+                cachePut(entry.key(), record.withSequence(existing != null ? existing.sequence() : 0L));
+            } catch (IOException | ClassNotFoundException ex) {
+                plugin.getLogger().warning("Journal-Eintrag für '" + entry.key() + "' nicht lesbar: " + ex.getMessage());
+            }
+        }
+    }
+
+    public boolean hasPendingWrites() {
+        return journal != null && !journal.isEmpty();
+    }
+
+    public int pendingWrites() {
+        return journal == null ? 0 : journal.size();
+    }
+
+    /**
+     * True while the database is unreachable and there is no offline journal to take writes; items are then
+     * served from the cache only and writes are refused without contacting the database.
+     */
+    public boolean isReadOnly() {
+        return journal == null && !db.isAvailable();
+    }
+
+    private boolean canDefer(SQLException ex) {
+        return journal != null && Database.isConnectivityFailure(ex);
+    }
+
+    /**
+     * Journals a write the backend could not take and shows it in the cache right away. Must be called with
+     * the key's edit lock held so replay and new edits of the same key do not interleave.
+     */
+    private boolean deferWrite(WriteJournal.Operation operation, ItemRecord record, long expectedSequence,
+                               String editor, String comment) {
+        try {
+            journal.append(operation, record.key(), ItemSerializer.serialize(record.item()), expectedSequence,
+                    editor, comment, record.updatedAt());
+        } catch (IOException ex) {
+            plugin.getLogger().severe("Konnte Änderung an '" + record.key() + "' nicht ins Journal schreiben: " + ex.getMessage());
+            webhooks.notifyError("journal", "Konnte Änderung an '" + record.key() + "' nicht ins Journal schreiben", ex);
+            return false;
+        }
+        if (operation == WriteJournal.Operation.DELETE) {
+            cacheRemove(record.key());
+        } else {
+            ItemRecord existing = cache.get(record.key());
+            cachePut(record.key(), record.withSequence(existing != null ? existing.sequence() : 0L));
+        }
+        if (!offline) {
+            offline = true;
+            plugin.getLogger().warning("Datenbank nicht erreichbar, Änderungen werden im Offline-Journal gepuffert.");
+        }
+        return true;
+    }
+
+    /**
+     * Change sequence a journaled SAVE or DELETE of {@code key} is based on: {@link WriteJournal#CHAINED} after
+     * an earlier journaled write of the key, {@code 0} if the key does not exist (a new item), otherwise the
+     * cached sequence. Must be called with the key's edit lock held.
+     */
+    private long journaledBase(String key) {
+        ItemRecord current = cache.get(key);
+        if (current == null) {
+            return 0L;
+        }
+        return journal.contains(key) ? WriteJournal.CHAINED : current.sequence();
+    }
+
+    /**
+     * Writes journaled changes to the backend in order, {@code replayBatchSize} entries per journal
+     * checkpoint. Writes to existing items are compare-and-set against the sequence they were based on; an
+     * entry that conflicts with a change from another server is dropped and reported, and the cache picks up
+     * the other server's state. Stops at the first connectivity failure and keeps the rest for the next run.
+     * Returns the number of entries written.
+     */
+    public int replayJournal() throws SQLException {
+        if (!hasPendingWrites()) {
+            return 0;
+        }
+        List<WriteJournal.Entry> pending = journal.pending();
+        List<String> conflicts = new ArrayList<>();
+        int written = 0;
+        try {
+            for (int start = 0; start < pending.size(); start += replayBatchSize) {
+                List<WriteJournal.Entry> batch = pending.subList(start, Math.min(pending.size(), start + replayBatchSize));
+                long acknowledged = -1L;
+                try {
+                    for (WriteJournal.Entry entry : batch) {
+                        if (replayEntry(entry, conflicts)) {
+                            written++;
+                        }
+                        acknowledged = entry.id();
+                    }
+                } finally {
+                    if (acknowledged >= 0) {
+                        acknowledge(acknowledged, batch);
+                    }
+                }
+            }
+        } finally {
+            if (!conflicts.isEmpty()) {
+                plugin.getLogger().warning("Offline-Änderungen wegen gleichzeitiger Bearbeitung verworfen: " + String.join(", ", conflicts));
+                webhooks.notifyError("journal", "Offline-Änderungen wegen gleichzeitiger Bearbeitung verworfen: " + String.join(", ", conflicts), null);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            // der Cache zeigt noch die verworfenen Stände, mit der Sequenz des geladenen Stands
+            load(false);
+        }
+        if (journal.isEmpty() && offline) {
+            offline = false;
+            plugin.getLogger().info("Offline-Journal übertragen, Datenbank wieder erreichbar.");
+        }
+        return written;
+    }
+
+    private boolean replayEntry(WriteJournal.Entry entry, List<String> conflicts) throws SQLException {
+        String key = entry.key();
+        Lock lock = editLocks[Math.floorMod(key.hashCode(), editLocks.length)];
+        lock.lock();
+        try {
+            ItemRecord record;
+            try {
+                record = ItemRecord.fromStack(key, ItemSerializer.deserialize(entry.nbt()), entry.timestamp(), false);
+            } catch (IOException | ClassNotFoundException ex) {
+                plugin.getLogger().severe("Journal-Eintrag für '" + key + "' nicht lesbar, wird verworfen: " + ex.getMessage());
+                return false;
+            }
+            try {
+                // SAVE/DELETE mit 0: Key gab es beim Schreiben ins Journal nicht (oder Journal einer älteren Version)
+                long sequence = switch (entry.operation()) {
+                    case SAVE -> entry.expectedSequence() == 0L
+                            ? db.saveItem(record, entry.editor(), entry.comment())
+                            : db.saveItemIfUnchanged(record, expectedSequence(entry), entry.editor(), entry.comment());
+                    case UPDATE -> db.saveItemIfUnchanged(record, expectedSequence(entry), entry.editor(), entry.comment());
+                    case DELETE -> {
+                        if (entry.expectedSequence() == 0L) {
+                            db.markDeleted(record, entry.timestamp(), entry.editor(), entry.comment());
+                        } else {
+                            db.markDeletedIfUnchanged(record, expectedSequence(entry), entry.timestamp(), entry.editor(), entry.comment());
+                        }
+                        yield -1L;
+                    }
+                };
+                if (sequence < 0) {
+                    replayedSequences.remove(key);
                 } else {
-                    cache.put(change.key(), change);
+                    replayedSequences.put(key, sequence);
+                    if (!journal.hasLater(key, entry.id())) {
+                        applyChange(record.withSequence(sequence));
+                    }
                 }
+                lastSync = Math.max(lastSync, entry.timestamp());
+                webhooks.notifyChange(entry.operation() == WriteJournal.Operation.DELETE ? "delete" : "save", key, entry.editor(), entry.comment());
+                return true;
+            } catch (ItemConflictException ex) {
+                // auch spätere, darauf aufbauende Einträge desselben Keys schlagen damit fehl
+                replayedSequences.remove(key);
+                conflicts.add(key);
+                return false;
+            } catch (SQLException ex) {
+                if (Database.isConnectivityFailure(ex)) {
+                    throw ex;
+                }
+                plugin.getLogger().severe("Journal-Eintrag für '" + key + "' abgelehnt, wird verworfen: " + ex.getMessage());
+                webhooks.notifyError("journal", "Journal-Eintrag für '" + key + "' abgelehnt", ex);
+                replayedSequences.remove(key);
+                return false;
             }
-            lastSync = maxTimestamp;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long expectedSequence(WriteJournal.Entry entry) throws ItemConflictException {
+        if (!entry.chained()) {
+            return entry.expectedSequence();
+        }
+        Long base = replayedSequences.get(entry.key());
+        if (base == null) {
+            // Vorgänger wurde verworfen
+            throw new ItemConflictException(entry.key(), WriteJournal.CHAINED);
+        }
+        return base;
+    }
+
+    private void acknowledge(long id, List<WriteJournal.Entry> batch) throws SQLException {
+        try {
+            journal.acknowledge(id);
+        } catch (IOException ex) {
+            throw new SQLException("Konnte Offline-Journal nicht fortschreiben", ex);
+        }
+        for (WriteJournal.Entry entry : batch) {
+            Lock lock = editLocks[Math.floorMod(entry.key().hashCode(), editLocks.length)];
+            lock.lock();
+            try {
+                if (!journal.contains(entry.key())) {
+                    replayedSequences.remove(entry.key());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public void sync() {
+        try {
+            syncChanges();
         } catch (SQLException ex) {
             plugin.getLogger().warning("Konnte Änderungen nicht synchronisieren: " + ex.getMessage());
             webhooks.notifyError("sync", "Konnte Änderungen nicht synchronisieren", ex);
         }
     }
 
+    /**
+     * Polls changes since the last seen timestamp and returns how many were applied. Does nothing while
+     * changes are pushed by the backend.
+     */
+    public int syncChanges() throws SQLException {
+        if (pushActive) {
+            return 0;
+        }
+        return pollChanges();
+    }
+
+    private int pollChanges() throws SQLException {
+        SyncEvent event = new SyncEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int applied = 0;
+        synchronized (syncLock) {
+            long since = syncCursor;
+            List<ItemRecord> changes = db.fetchChanges(since);
+            long cursor = since;
+            long maxTimestamp = 0L;
+            for (ItemRecord change : changes) {
+                cursor = Math.max(cursor, change.sequence());
+                // Überlappung des Backends (MongoDB) und eigene Schreibvorgänge
+                if (isKnown(change)) {
+                    continue;
+                }
+                maxTimestamp = Math.max(maxTimestamp, change.updatedAt());
+                applyRemoteChange(change);
+                applied++;
+            }
+            syncCursor = cursor;
+            lastSync = Math.max(lastSync, maxTimestamp);
+        }
+        plugin.metrics().timer("sync.poll").recordSince(start);
+        commitSyncEvent(event, "poll", applied);
+        return applied;
+    }
+
+    private boolean isKnown(ItemRecord change) {
+        ItemRecord current = cache.get(change.key());
+        return current == null ? change.deleted() : current.sequence() >= change.sequence();
+    }
+
+    // Verzögerung zwischen Schreiben (anderer Server) und Übernahme hier; eigene Schreibvorgänge zählen nicht.
+    // updatedAt stammt von der Uhr des schreibenden Servers: der Wert stimmt nur bei synchronisierten Uhren (NTP),
+    // geht dessen Uhr nach, erscheint die Verzögerung zu groß, geht sie vor, wird sie auf 0 gekappt
+    private void applyRemoteChange(ItemRecord change) {
+        ItemRecord before = cache.get(change.key());
+        if (before == null || before.sequence() < change.sequence()) {
+            long lagMillis = Math.max(0L, System.currentTimeMillis() - change.updatedAt());
+            plugin.metrics().timer("sync.lag").record(lagMillis * 1_000_000L);
+            lastSyncLagMillis = lagMillis;
+        }
+        applyChange(change, true);
+    }
+
     public boolean add(String name, ItemStack stack, String editor) {
         return add(name, stack, editor, null);
     }
@@ -107,53 +456,144 @@ public class ItemManager {
     }
 
     private boolean replaceInternal(String key, ItemStack stack, String editor, String comment) {
+        if (isReadOnly()) {
+            return false;
+        }
         ItemRecord record = ItemRecord.fromStack(key, stack, db.now(), false);
         String appliedComment = comment != null ? comment : "Updated item";
+        Lock lock = editLocks[Math.floorMod(key.hashCode(), editLocks.length)];
+        lock.lock();
         try {
-            db.saveItem(record, editor, appliedComment);
-            cache.put(key, record);
+            if (hasPendingWrites()) {
+                // hinter die gepufferten Änderungen einreihen, sonst stimmt die Reihenfolge nicht mehr
+                return deferWrite(WriteJournal.Operation.SAVE, record, journaledBase(key), editor, appliedComment);
+            }
+            long sequence = db.saveItem(record, editor, appliedComment);
+            // syncCursor bleibt stehen: kleinere Sequenzen anderer Server sind evtl. noch nicht abgeholt
+            applyChange(record.withSequence(sequence));
             lastSync = Math.max(lastSync, record.updatedAt());
             webhooks.notifyChange("save", key, editor, appliedComment);
             return true;
         } catch (SQLException ex) {
+            if (canDefer(ex)) {
+                return deferWrite(WriteJournal.Operation.SAVE, record, journaledBase(key), editor, appliedComment);
+            }
             plugin.getLogger().severe("Fehler beim Speichern des Items '" + key + "': " + ex.getMessage());
             webhooks.notifyError("save", "Fehler beim Speichern des Items '" + key + "'", ex);
             return false;
+        } finally {
+            lock.unlock();
         }
     }
 
     public boolean remove(String name, String editor) {
         String key = normalize(name);
         ItemRecord current = cache.get(key);
-        if (current == null) {
+        if (current == null || isReadOnly()) {
             return false;
         }
 
         long timestamp = db.now();
+        Lock lock = editLocks[Math.floorMod(key.hashCode(), editLocks.length)];
+        lock.lock();
         try {
+            if (hasPendingWrites()) {
+                return deferWrite(WriteJournal.Operation.DELETE, current.markDeleted(timestamp), journaledBase(key), editor, "Deleted item");
+            }
             if (db.markDeleted(current, timestamp, editor, "Deleted item")) {
-                cache.remove(key);
+                applyChange(current.markDeleted(timestamp));
                 lastSync = Math.max(lastSync, timestamp);
                 webhooks.notifyChange("delete", key, editor, "Deleted item");
                 return true;
             }
         } catch (SQLException ex) {
+            if (canDefer(ex)) {
+                return deferWrite(WriteJournal.Operation.DELETE, current.markDeleted(timestamp), journaledBase(key), editor, "Deleted item");
+            }
             plugin.getLogger().severe("Fehler beim Löschen des Items '" + name + "': " + ex.getMessage());
             webhooks.notifyError("delete", "Fehler beim Löschen des Items '" + name + "'", ex);
+        } finally {
+            lock.unlock();
         }
         return false;
     }
 
     public ItemStack get(String name) {
-        ItemRecord record = cache.get(normalize(name));
+        ItemRecord record = cache.get(lookupKey(name));
         if (record == null) {
+            plugin.metrics().increment("cache.misses");
             return externalItems.resolve(name).orElse(null);
         }
+        plugin.metrics().increment("cache.hits");
         return record.item().clone();
     }
 
+    /** Copies of all found items in request order; one cache pass, external lookups only for misses. */
+    public Map<String, ItemStack> getAll(Collection<String> names) {
+        Map<String, ItemStack> out = new LinkedHashMap<>();
+        int hits = 0;
+        for (String name : names) {
+            ItemRecord record = cache.get(lookupKey(name));
+            if (record != null) {
+                out.put(name, record.item().clone());
+                hits++;
+            } else {
+                externalItems.resolve(name).ifPresent(item -> out.put(name, item));
+            }
+        }
+        plugin.metrics().counter("cache.hits").add(hits);
+        plugin.metrics().counter("cache.misses").add(names.size() - hits);
+        return out;
+    }
+
+    /** The cached item without copying it; {@link ItemView#copy()} materializes a stack when needed. */
+    public Optional<ItemView> view(String name) {
+        ItemRecord record = cache.get(lookupKey(name));
+        return record == null ? Optional.empty() : Optional.of(new RecordView(record));
+    }
+
+    /**
+     * Gives {@code amount} of the item ({@code <= 0}: the stored amount) split into stacks of the material's
+     * maximum size. The cached item is copied once per stack handed out; whatever does not fit into the
+     * inventory is dropped at the player's feet. Returns {@code null} if there is no such item.
+     */
+    public GiveResult give(Player player, String name, int amount) {
+        ItemRecord record = cache.get(lookupKey(name));
+        ItemStack template;
+        // Items externer Plugins sind bereits eine frische Kopie und können direkt als erster Stack raus
+        boolean owned = record == null;
+        if (record != null) {
+            plugin.metrics().increment("cache.hits");
+            template = record.item();
+        } else {
+            plugin.metrics().increment("cache.misses");
+            template = externalItems.resolve(name).orElse(null);
+            if (template == null) {
+                return null;
+            }
+        }
+
+        int total = amount > 0 ? amount : Math.max(1, template.getAmount());
+        int maxStack = Math.max(1, template.getMaxStackSize());
+        ItemStack[] stacks = new ItemStack[(total + maxStack - 1) / maxStack];
+        int remaining = total;
+        for (int i = 0; i < stacks.length; i++) {
+            ItemStack stack = i == 0 && owned ? template : template.clone();
+            stack.setAmount(Math.min(maxStack, remaining));
+            remaining -= stack.getAmount();
+            stacks[i] = stack;
+        }
+
+        int dropped = 0;
+        for (ItemStack leftover : player.getInventory().addItem(stacks).values()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), leftover);
+            dropped += leftover.getAmount();
+        }
+        return new GiveResult(total, dropped);
+    }
+
     public Optional<ItemRecord> record(String name) {
-        return Optional.ofNullable(cache.get(normalize(name)));
+        return Optional.ofNullable(cache.get(lookupKey(name)));
     }
 
     public Optional<ItemRecord> info(String name) {
@@ -171,30 +611,92 @@ public class ItemManager {
     }
 
     public boolean exists(String name) {
-        return cache.containsKey(normalize(name));
+        return cache.containsKey(lookupKey(name));
     }
 
     public long lastSync() {
         return lastSync;
     }
 
-    public boolean updateItem(String name, Function<ItemStack, ItemStack> mutator, String editor, String comment) {
+    public UpdateResult updateItem(String name, Function<ItemStack, ItemStack> mutator, String editor, String comment) {
+        return updateItem(name, mutator, false, editor, comment);
+    }
+
+    /**
+     * Applies {@code mutator} to the cached item and writes it only if nobody changed the item since
+     * (compare-and-set on the change sequence). Commutative edits are re-applied on top of the newer state
+     * after a conflict; all other edits report {@link UpdateResult#CONFLICT}.
+     */
+    private UpdateResult updateItem(String name, Function<ItemStack, ItemStack> mutator, boolean commutative,
+                                    String editor, String comment) {
         String key = normalize(name);
-        ItemRecord current = cache.get(key);
-        if (current == null) {
-            return false;
+        String appliedComment = comment != null ? comment : "Updated item";
+        if (isReadOnly()) {
+            return UpdateResult.UNAVAILABLE;
         }
+        Lock lock = editLocks[Math.floorMod(key.hashCode(), editLocks.length)];
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                ItemRecord current = cache.get(key);
+                if (current == null) {
+                    return UpdateResult.NOT_FOUND;
+                }
+                ItemStack mutated = mutator.apply(current.item().clone());
+                if (mutated == null) {
+                    return UpdateResult.FAILED;
+                }
 
-        ItemStack base = current.item().clone();
-        ItemStack mutated = mutator.apply(base);
-        if (mutated == null) {
-            return false;
+                ItemRecord record = ItemRecord.fromStack(key, mutated, db.now(), false);
+                if (hasPendingWrites()) {
+                    long expected = journal.contains(key) ? WriteJournal.CHAINED : current.sequence();
+                    return deferWrite(WriteJournal.Operation.UPDATE, record, expected, editor, appliedComment)
+                            ? UpdateResult.UPDATED : UpdateResult.FAILED;
+                }
+                try {
+                    long sequence = db.saveItemIfUnchanged(record, current.sequence(), editor, appliedComment);
+                    applyChange(record.withSequence(sequence));
+                    lastSync = Math.max(lastSync, record.updatedAt());
+                    webhooks.notifyChange("save", key, editor, appliedComment);
+                    return UpdateResult.UPDATED;
+                } catch (ItemConflictException ex) {
+                    // neueren Stand holen; bei kommutativen Änderungen darauf erneut anwenden
+                    refreshAfterConflict(key);
+                    if (!commutative || attempt >= MAX_REBASE_ATTEMPTS) {
+                        plugin.getLogger().info("Bearbeitung von '" + key + "' abgelehnt: " + ex.getMessage());
+                        return UpdateResult.CONFLICT;
+                    }
+                } catch (SQLException ex) {
+                    if (canDefer(ex)) {
+                        return deferWrite(WriteJournal.Operation.UPDATE, record, current.sequence(), editor, appliedComment)
+                                ? UpdateResult.UPDATED : UpdateResult.FAILED;
+                    }
+                    plugin.getLogger().severe("Fehler beim Speichern des Items '" + key + "': " + ex.getMessage());
+                    webhooks.notifyError("save", "Fehler beim Speichern des Items '" + key + "'", ex);
+                    return UpdateResult.FAILED;
+                }
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        return replaceInternal(key, mutated, editor, comment);
+    // nur das umstrittene Item neu lesen, während die Sperre gehalten wird; alles andere holt der nächste Poll
+    private void refreshAfterConflict(String key) {
+        try {
+            db.fetchItem(key)
+                    .filter(stored -> !isKnown(stored))
+                    .ifPresent(stored -> applyChange(stored, true));
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("Konnte Item '" + key + "' nicht neu laden: " + ex.getMessage());
+        }
+    }
+
+    public UpdateResult updateMeta(String name, Consumer<ItemMeta> consumer, String editor, String comment) {
+        return updateMeta(name, consumer, false, editor, comment);
     }
 
-    public boolean updateMeta(String name, Consumer<ItemMeta> consumer, String editor, String comment) {
+    private UpdateResult updateMeta(String name, Consumer<ItemMeta> consumer, boolean commutative, String editor, String comment) {
         return updateItem(name, stack -> {
             ItemMeta meta = stack.getItemMeta();
             if (meta == null) {
@@ -206,32 +708,33 @@ public class ItemManager {
             consumer.accept(meta);
             stack.setItemMeta(meta);
             return stack;
-        }, editor, comment);
+        }, commutative, editor, comment);
     }
 
-    public boolean setCustomModelData(String name, Integer value, String editor) {
+    public UpdateResult setCustomModelData(String name, Integer value, String editor) {
         String comment = value == null ? "Cleared CustomModelData" : "Set CustomModelData to " + value;
         return updateMeta(name, meta -> meta.setCustomModelData(value), editor, comment);
     }
 
-    public boolean setDisplayName(String name, String displayName, String editor) {
+    public UpdateResult setDisplayName(String name, String displayName, String editor) {
         String comment = "Updated display name";
         return updateMeta(name, meta -> meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', displayName)), editor, comment);
     }
 
-    public boolean clearDisplayName(String name, String editor) {
+    public UpdateResult clearDisplayName(String name, String editor) {
         return updateMeta(name, meta -> meta.setDisplayName(null), editor, "Cleared display name");
     }
 
-    public boolean addLoreLine(String name, String line, String editor) {
+    public UpdateResult addLoreLine(String name, String line, String editor) {
+        // Anhängen ist unabhängig vom vorherigen Stand und darf nach einem Konflikt neu angewendet werden
         return updateMeta(name, meta -> {
             List<String> lore = meta.hasLore() ? new ArrayList<>(meta.getLore()) : new ArrayList<>();
             lore.add(ChatColor.translateAlternateColorCodes('&', line));
             meta.setLore(lore);
-        }, editor, "Added lore line");
+        }, true, editor, "Added lore line");
     }
 
-    public boolean setLoreLine(String name, int index, String line, String editor) {
+    public UpdateResult setLoreLine(String name, int index, String line, String editor) {
         return updateMeta(name, meta -> {
             List<String> lore = meta.hasLore() ? new ArrayList<>(meta.getLore()) : new ArrayList<>();
             while (lore.size() <= index) {
@@ -242,7 +745,7 @@ public class ItemManager {
         }, editor, "Updated lore line " + (index + 1));
     }
 
-    public boolean clearLore(String name, String editor) {
+    public UpdateResult clearLore(String name, String editor) {
         return updateMeta(name, meta -> meta.setLore(null), editor, "Cleared lore");
     }
 
@@ -255,12 +758,145 @@ public class ItemManager {
         }
     }
 
-    public org.bukkit.scheduler.BukkitTask applySyncTask(long intervalTicks) {
-        return Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::sync, intervalTicks, intervalTicks);
+    private void applyChange(ItemRecord change) {
+        applyChange(change, false);
+    }
+
+    private void applyChange(ItemRecord change, boolean remote) {
+        ItemChange.Type[] type = new ItemChange.Type[1];
+        // ältere Stände (z.B. von einem verzögerten Replica-Poll) überschreiben keine neueren
+        cache.compute(change.key(), (key, existing) -> {
+            if (existing != null && existing.sequence() > change.sequence()) {
+                return existing;
+            }
+            // eigene Schreibvorgänge kommen per Sync nochmal an, nur einmal melden
+            boolean known = existing != null && existing.sequence() == change.sequence() && change.sequence() > 0;
+            if (change.deleted()) {
+                type[0] = existing != null ? ItemChange.Type.DELETED : null;
+            } else if (!known) {
+                type[0] = existing == null ? ItemChange.Type.CREATED : ItemChange.Type.UPDATED;
+            }
+            ItemRecord result = change.deleted() ? null : change;
+            if (existing == null && result != null) {
+                countNamespace(key, 1);
+            } else if (existing != null && result == null) {
+                countNamespace(key, -1);
+            }
+            return result;
+        });
+        cacheVersion.incrementAndGet();
+        if (type[0] != null && !changeListeners.isEmpty()) {
+            ItemChange event = new ItemChange(change.key(), type[0], change.sequence(), remote);
+            for (ItemChangeListener listener : changeListeners) {
+                listener.onItemChange(event);
+            }
+        }
+    }
+
+    private void cachePut(String key, ItemRecord record) {
+        if (cache.put(key, record) == null) {
+            countNamespace(key, 1);
+        }
+        cacheVersion.incrementAndGet();
+    }
+
+    private void cacheRemove(String key) {
+        if (cache.remove(key) != null) {
+            countNamespace(key, -1);
+        }
+        cacheVersion.incrementAndGet();
+    }
+
+    private void countNamespace(String key, int delta) {
+        namespaceCounts.computeIfAbsent(namespaceOf(key), ignored -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    /** {@code ""} for items without a namespace. */
+    public static String namespaceOf(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? "" : key.substring(0, colon);
+    }
+
+    /** Cached items in {@code namespace} ({@code ""}: without namespace), kept up to date on every change. */
+    public int namespaceCount(String namespace) {
+        AtomicInteger count = namespaceCounts.get(lookupKey(namespace));
+        return count == null ? 0 : count.get();
+    }
+
+    /** Changes whenever the cache changes; callers memoizing derived values compare it instead of listening. */
+    public long cacheVersion() {
+        return cacheVersion.get();
     }
 
+    /**
+     * Delay of the most recent change received from another server, {@code -1} if none arrived yet. Measured
+     * against the writing server's clock, so only meaningful while the servers' clocks are synchronized.
+     */
+    public long lastSyncLagMillis() {
+        return lastSyncLagMillis;
+    }
+
+    public void addChangeListener(ItemChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(ItemChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public boolean isPushSyncActive() {
+        return pushActive;
+    }
+
+    public void subscribeChanges() {
+        try {
+            if (db.subscribeChanges(new PushListener())) {
+                plugin.getLogger().info("Item changes are pushed by the database; polling only while the feed is down.");
+            }
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("Konnte Change-Feed nicht abonnieren: " + ex.getMessage());
+        }
+    }
+
+    /** Lower-case key; returns {@code name} itself when it already is. */
     public static String normalize(String name) {
-        return name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            // nur ASCII-Kleinbuchstaben und Zeichen ohne Großform sind sicher, alles andere macht toLowerCase
+            if ((c >= 'A' && c <= 'Z') || c >= 0x80) {
+                return name.toLowerCase(Locale.ROOT);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Key for reading the cache or the namespace counts with {@code name} in any case: {@code name} itself if
+     * it is already lower-case, a per-thread {@link KeyProbe} for upper-case ASCII, so neither allocates, and
+     * the lower-case copy for other characters. Only for {@code get}/{@code containsKey}, never for writes.
+     */
+    private static Object lookupKey(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                return name.toLowerCase(Locale.ROOT);
+            }
+            if (c >= 'A' && c <= 'Z') {
+                KeyProbe probe = KeyProbe.of(name);
+                return probe != null ? probe : name.toLowerCase(Locale.ROOT);
+            }
+        }
+        return name;
     }
 
     public List<ItemVersion> history(String name, int limit) {
@@ -346,6 +982,10 @@ public class ItemManager {
             errors.add("File not found: " + file);
             return new ImportReport(total, created, updated, errors, dryRun);
         }
+        if (!dryRun && isReadOnly()) {
+            errors.add("Database unavailable");
+            return new ImportReport(total, created, updated, errors, dryRun);
+        }
 
         try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(file))) {
             ZipEntry entry;
@@ -476,6 +1116,60 @@ public class ItemManager {
         return namespace + "/" + name.replace(':', '_');
     }
 
+    /**
+     * Stands in for the lower-case form of an ASCII name in a hash lookup: same hash as that string, and
+     * equal to it. The maps call {@code probe.equals(storedKey)}, which compares against the stored lower-case
+     * keys without building the lower-case string. One reused instance per thread; it must not be kept.
+     */
+    private static final class KeyProbe {
+
+        private static final ThreadLocal<KeyProbe> CURRENT = ThreadLocal.withInitial(KeyProbe::new);
+
+        private String name;
+        private int hash;
+
+        /** The probe for {@code name}, or {@code null} if it has characters other than ASCII. */
+        static KeyProbe of(String name) {
+            int hash = 0;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c >= 0x80) {
+                    return null;
+                }
+                hash = 31 * hash + lower(c);
+            }
+            KeyProbe probe = CURRENT.get();
+            probe.name = name;
+            probe.hash = hash;
+            return probe;
+        }
+
+        private static char lower(char c) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof String key) || key.length() != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != lower(name.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public record GiveResult(int given, int dropped) {
+    }
+
     public record ImportReport(int total, int created, int updated, List<String> errors, boolean dryRun) {
         public boolean hasErrors() {
             return !errors.isEmpty();
@@ -487,4 +1181,35 @@ public class ItemManager {
             return !errors.isEmpty();
         }
     }
+
+    private final class PushListener implements StorageBackend.ChangeListener {
+
+        @Override
+        public void onSubscribed() {
+            pushActive = true;
+            // Änderungen aus der Zeit ohne Feed einmalig nachladen
+            try {
+                pollChanges();
+            } catch (SQLException ex) {
+                plugin.getLogger().warning("Konnte Änderungen nicht synchronisieren: " + ex.getMessage());
+            }
+        }
+
+        @Override
+        public void onChange(ItemRecord record) {
+            SyncEvent event = new SyncEvent();
+            event.begin();
+            synchronized (syncLock) {
+                syncCursor = Math.max(syncCursor, record.sequence());
+                lastSync = Math.max(lastSync, record.updatedAt());
+            }
+            applyRemoteChange(record);
+            commitSyncEvent(event, "push", 1);
+        }
+
+        @Override
+        public void onInterrupted(Exception cause) {
+            pushActive = false;
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package net.devvoxel.itemDB.managers;
+
+import net.devvoxel.itemDB.api.ItemView;
+import net.devvoxel.itemDB.data.ItemRecord;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.Map;
+
+/** {@link ItemView} backed directly by the cached, immutable {@link ItemRecord}. */
+record RecordView(ItemRecord record) implements ItemView {
+
+    @Override
+    public String key() {
+        return record.key();
+    }
+
+    @Override
+    public Material material() {
+        return record.item().getType();
+    }
+
+    @Override
+    public int amount() {
+        return record.item().getAmount();
+    }
+
+    @Override
+    public String displayName() {
+        return record.displayName();
+    }
+
+    @Override
+    public List<String> lore() {
+        return record.lore();
+    }
+
+    @Override
+    public Integer customModelData() {
+        return record.customModelData();
+    }
+
+    @Override
+    public Map<String, Integer> enchantments() {
+        return record.enchantments();
+    }
+
+    @Override
+    public long updatedAt() {
+        return record.updatedAt();
+    }
+
+    @Override
+    public long sequence() {
+        return record.sequence();
+    }
+
+    @Override
+    public ItemStack copy() {
+        return record.item().clone();
+    }
+}
@@ -0,0 +1,181 @@
+package net.devvoxel.itemDB.managers;
+
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.webhook.WebhookNotifier;
+import net.devvoxel.itemDB.metrics.OperationContext;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives {@link ItemManager#syncChanges()}. A cheap async timer ticks at the minimum interval and only polls
+ * once the current interval has elapsed. The interval halves while changes keep arriving, doubles while idle
+ * or failing, and a tick is skipped while the previous poll is still running. The error webhook fires once
+ * when polling starts failing, not on every failed run. Writes buffered in the offline journal are replayed
+ * before each poll.
+ */
+public class SyncScheduler {
+
+    private static final long MILLIS_PER_TICK = 50L;
+
+    public enum State { POLLING, PUSH, FAILING }
+
+    private final ItemDB plugin;
+    private final ItemManager items;
+    private final WebhookNotifier webhooks;
+    private final long baseIntervalMillis;
+    private final long minIntervalMillis;
+    private final long idleMaxIntervalMillis;
+    private final long errorMaxIntervalMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong changesApplied = new AtomicLong();
+    private final AtomicLong totalDurationMillis = new AtomicLong();
+
+    private volatile long intervalMillis;
+    private volatile long nextRunAt;
+    private volatile long lastRunAt;
+    private volatile long lastSuccessAt;
+    private volatile long lastDurationMillis;
+    private volatile int consecutiveFailures;
+    private volatile State state = State.POLLING;
+    private BukkitTask task;
+
+    public SyncScheduler(ItemDB plugin, ItemManager items, WebhookNotifier webhooks) {
+        this.plugin = plugin;
+        this.items = items;
+        this.webhooks = webhooks;
+        ConfigurationSection cfg = plugin.getConfig().getConfigurationSection("Database");
+        long base = cfg == null ? 100L : cfg.getLong("SyncIntervalTicks", 100L);
+        long min = cfg == null ? 20L : cfg.getLong("SyncMinIntervalTicks", 20L);
+        long idleMax = cfg == null ? 400L : cfg.getLong("SyncMaxIntervalTicks", 400L);
+        long errorMax = cfg == null ? 1200L : cfg.getLong("SyncErrorMaxIntervalTicks", 1200L);
+
+        this.minIntervalMillis = Math.max(1L, min) * MILLIS_PER_TICK;
+        this.baseIntervalMillis = Math.max(minIntervalMillis, Math.max(20L, base) * MILLIS_PER_TICK);
+        this.idleMaxIntervalMillis = Math.max(baseIntervalMillis, idleMax * MILLIS_PER_TICK);
+        this.errorMaxIntervalMillis = Math.max(baseIntervalMillis, errorMax * MILLIS_PER_TICK);
+        this.intervalMillis = baseIntervalMillis;
+    }
+
+    public void start() {
+        plugin.metrics().gauge("sync.interval_ticks", () -> intervalMillis / MILLIS_PER_TICK);
+        plugin.metrics().gauge("sync.since_success_ms", () -> lastSuccessAt == 0 ? null : System.currentTimeMillis() - lastSuccessAt);
+        plugin.metrics().gauge("sync.consecutive_failures", () -> consecutiveFailures);
+        plugin.metrics().gauge("sync.push_active", () -> items.isPushSyncActive() ? 1 : 0);
+        plugin.metrics().gauge("journal.pending", items::pendingWrites);
+        items.subscribeChanges();
+        long tickInterval = minIntervalMillis / MILLIS_PER_TICK;
+        nextRunAt = System.currentTimeMillis() + intervalMillis;
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::tick, tickInterval, tickInterval);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        if (now < nextRunAt) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            // vorheriger Lauf hängt noch (langsame DB) -> nicht überlappen
+            skipped.incrementAndGet();
+            return;
+        }
+        String previous = OperationContext.enter("sync");
+        try {
+            runOnce(now);
+        } finally {
+            OperationContext.restore(previous);
+            nextRunAt = System.currentTimeMillis() + intervalMillis;
+            running.set(false);
+        }
+    }
+
+    private void runOnce(long startedAt) {
+        if (items.hasPendingWrites() && !replayJournal(startedAt)) {
+            return;
+        }
+        if (items.isPushSyncActive()) {
+            state = State.PUSH;
+            intervalMillis = baseIntervalMillis;
+            return;
+        }
+        runs.incrementAndGet();
+        lastRunAt = startedAt;
+        try {
+            int applied = items.syncChanges();
+            recordDuration(startedAt);
+            changesApplied.addAndGet(applied);
+            lastSuccessAt = System.currentTimeMillis();
+            if (state == State.FAILING) {
+                plugin.getLogger().info("Synchronisation wieder erfolgreich nach " + consecutiveFailures + " Fehlversuchen.");
+            }
+            consecutiveFailures = 0;
+            state = State.POLLING;
+            intervalMillis = applied > 0
+                    ? Math.max(minIntervalMillis, intervalMillis / 2)
+                    : Math.min(idleMaxIntervalMillis, Math.max(baseIntervalMillis, intervalMillis * 2));
+        } catch (SQLException ex) {
+            recordFailure(startedAt, ex);
+        }
+    }
+
+    // Offline-Journal vor dem Abholen fremder Änderungen übertragen, damit Konflikte gegen den alten Stand geprüft werden
+    private boolean replayJournal(long startedAt) {
+        try {
+            int replayed = items.replayJournal();
+            if (replayed > 0) {
+                plugin.getLogger().info(replayed + " Änderungen aus dem Offline-Journal übertragen.");
+            }
+            return true;
+        } catch (SQLException ex) {
+            runs.incrementAndGet();
+            lastRunAt = startedAt;
+            recordFailure(startedAt, ex);
+            return false;
+        }
+    }
+
+    private void recordFailure(long startedAt, SQLException ex) {
+        recordDuration(startedAt);
+        failures.incrementAndGet();
+        consecutiveFailures++;
+        if (state != State.FAILING) {
+            state = State.FAILING;
+            plugin.getLogger().warning("Konnte Änderungen nicht synchronisieren: " + ex.getMessage());
+            webhooks.notifyError("sync", "Konnte Änderungen nicht synchronisieren", ex);
+        }
+        intervalMillis = Math.min(errorMaxIntervalMillis, Math.max(baseIntervalMillis, intervalMillis * 2));
+    }
+
+    private void recordDuration(long startedAt) {
+        long duration = System.currentTimeMillis() - startedAt;
+        lastDurationMillis = duration;
+        totalDurationMillis.addAndGet(duration);
+    }
+
+    public Stats stats() {
+        long totalRuns = runs.get();
+        return new Stats(state, intervalMillis / MILLIS_PER_TICK, totalRuns, skipped.get(), failures.get(),
+                consecutiveFailures, changesApplied.get(), lastDurationMillis,
+                totalRuns == 0 ? 0L : totalDurationMillis.get() / totalRuns, lastRunAt, lastSuccessAt);
+    }
+
+    public record Stats(State state, long intervalTicks, long runs, long skipped, long failures,
+                        int consecutiveFailures, long changesApplied, long lastDurationMillis,
+                        long averageDurationMillis, long lastRunAt, long lastSuccessAt) {
+    }
+}
@@ -0,0 +1,101 @@
+package net.devvoxel.itemDB.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Exposes every value of {@link MetricsRegistry#snapshot()} as a read-only JMX attribute under
+ * {@code net.devvoxel.itemDB:type=Metrics}. Attribute values are doubles.
+ */
+public class MetricsMBean implements DynamicMBean {
+
+    private static final String OBJECT_NAME = "net.devvoxel.itemDB:type=Metrics";
+
+    private final MetricsRegistry registry;
+    private ObjectName registeredName;
+
+    public MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void register(Logger logger) {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            var server = ManagementFactory.getPlatformMBeanServer();
+            // nach /reload ist die alte Instanz evtl. noch registriert
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            this.registeredName = name;
+        } catch (Exception ex) {
+            logger.warning("Failed to register JMX metrics: " + ex.getMessage());
+        }
+    }
+
+    public void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (Exception ignored) {
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = registry.snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value.doubleValue();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> snapshot = registry.snapshot();
+        AttributeList out = new AttributeList();
+        for (String attribute : attributes) {
+            Number value = snapshot.get(attribute);
+            if (value != null) {
+                out.add(new Attribute(attribute, value.doubleValue()));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("ItemDB metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("ItemDB metrics have no operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Number> snapshot = registry.snapshot();
+        MBeanAttributeInfo[] attributes = snapshot.keySet().stream()
+                .map(key -> new MBeanAttributeInfo(key, "double", key, true, false, false))
+                .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "ItemDB metrics", attributes, null, new MBeanOperationInfo[0], null);
+    }
+}
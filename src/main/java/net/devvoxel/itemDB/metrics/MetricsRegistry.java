@@ -0,0 +1,81 @@
+package net.devvoxel.itemDB.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Timers, counters and gauges of this plugin, keyed by dotted names such as {@code db.save}. Timers and
+ * counters are created on first use; gauges and gauge sources are read when a snapshot is taken.
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<Map<String, Number>>> gaugeSources = new ConcurrentHashMap<>();
+
+    public LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, ignored -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, ignored -> new LongAdder());
+    }
+
+    public void increment(String name) {
+        counter(name).increment();
+    }
+
+    public void gauge(String name, Supplier<Number> supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /** Registers a supplier of several gauges at once, e.g. a backend's pool metrics. */
+    public void gauges(String source, Supplier<Map<String, Number>> supplier) {
+        gaugeSources.put(source, supplier);
+    }
+
+    public Map<String, LatencyHistogram.Snapshot> timerSnapshots() {
+        Map<String, LatencyHistogram.Snapshot> out = new TreeMap<>();
+        timers.forEach((name, histogram) -> out.put(name, histogram.snapshot()));
+        return out;
+    }
+
+    public Map<String, Long> counterValues() {
+        Map<String, Long> out = new TreeMap<>();
+        counters.forEach((name, adder) -> out.put(name, adder.sum()));
+        return out;
+    }
+
+    public Map<String, Number> gaugeValues() {
+        Map<String, Number> out = new TreeMap<>();
+        gauges.forEach((name, supplier) -> {
+            Number value = supplier.get();
+            if (value != null) {
+                out.put(name, value);
+            }
+        });
+        gaugeSources.values().forEach(source -> out.putAll(source.get()));
+        return out;
+    }
+
+    /** All values flattened into one map; timers contribute {@code .count}, {@code .avg_ms}, {@code .p95_ms} etc. */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> out = new TreeMap<>();
+        timerSnapshots().forEach((name, timer) -> {
+            out.put(name + ".count", timer.count());
+            out.put(name + ".avg_ms", timer.averageMillis());
+            out.put(name + ".p50_ms", timer.p50Nanos() / 1_000_000.0);
+            out.put(name + ".p95_ms", timer.p95Nanos() / 1_000_000.0);
+            out.put(name + ".p99_ms", timer.p99Nanos() / 1_000_000.0);
+            out.put(name + ".max_ms", timer.maxNanos() / 1_000_000.0);
+        });
+        out.putAll(counterValues());
+        out.putAll(gaugeValues());
+        return out;
+    }
+}
@@ -0,0 +1,34 @@
+package net.devvoxel.itemDB.metrics;
+
+/**
+ * Names what the current thread is doing on behalf of (a command, the sync scheduler, ...) so slow
+ * database calls can be traced back to their caller. Falls back to the thread name.
+ */
+public final class OperationContext {
+
+    private static final int MAX_LENGTH = 80;
+    private static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+
+    private OperationContext() {
+    }
+
+    /** Sets the caller for this thread and returns the previous one for {@link #restore(String)}. */
+    public static String enter(String caller) {
+        String previous = CALLER.get();
+        CALLER.set(caller.length() > MAX_LENGTH ? caller.substring(0, MAX_LENGTH) + "…" : caller);
+        return previous;
+    }
+
+    public static void restore(String previous) {
+        if (previous == null) {
+            CALLER.remove();
+        } else {
+            CALLER.set(previous);
+        }
+    }
+
+    public static String current() {
+        String caller = CALLER.get();
+        return caller != null ? caller : Thread.currentThread().getName();
+    }
+}
@@ -0,0 +1,89 @@
+package net.devvoxel.itemDB.metrics;
+
+import net.devvoxel.itemDB.ItemDB;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the registry in Prometheus text format to a file in the data folder, e.g. for node_exporter's
+ * textfile collector. Timers become summaries in seconds, counters and gauges plain samples.
+ */
+public class PrometheusFileExporter {
+
+    private static final Pattern INVALID_NAME_CHARS = Pattern.compile("[^a-zA-Z0-9_]");
+
+    private final ItemDB plugin;
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final long intervalTicks;
+    private BukkitTask task;
+
+    public PrometheusFileExporter(ItemDB plugin, MetricsRegistry registry, String fileName, long intervalSeconds) {
+        this.plugin = plugin;
+        this.registry = registry;
+        this.file = plugin.getDataFolder().toPath().resolve(fileName);
+        this.intervalTicks = Math.max(1L, intervalSeconds) * 20L;
+    }
+
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::write, intervalTicks, intervalTicks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void write() {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, render(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to write Prometheus metrics: " + ex.getMessage());
+        }
+    }
+
+    String render() {
+        StringBuilder out = new StringBuilder();
+        registry.timerSnapshots().forEach((name, timer) -> {
+            String metric = metricName(name) + "_seconds";
+            out.append("# TYPE ").append(metric).append(" summary\n");
+            sample(out, metric + "{quantile=\"0.5\"}", timer.p50Nanos() / 1e9);
+            sample(out, metric + "{quantile=\"0.95\"}", timer.p95Nanos() / 1e9);
+            sample(out, metric + "{quantile=\"0.99\"}", timer.p99Nanos() / 1e9);
+            sample(out, metric + "_sum", timer.totalNanos() / 1e9);
+            sample(out, metric + "_count", timer.count());
+        });
+        registry.counterValues().forEach((name, value) -> {
+            String metric = metricName(name) + "_total";
+            out.append("# TYPE ").append(metric).append(" counter\n");
+            sample(out, metric, value);
+        });
+        registry.gaugeValues().forEach((name, value) -> {
+            String metric = metricName(name);
+            out.append("# TYPE ").append(metric).append(" gauge\n");
+            sample(out, metric, value);
+        });
+        return out.toString();
+    }
+
+    private static String metricName(String name) {
+        return "itemdb_" + INVALID_NAME_CHARS.matcher(name.toLowerCase(Locale.ROOT)).replaceAll("_");
+    }
+
+    private static void sample(StringBuilder out, String name, Number value) {
+        out.append(name).append(' ').append(value).append('\n');
+    }
+}
@@ -0,0 +1,134 @@
+package net.devvoxel.itemDB.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the most recent database calls that took longer than a threshold in a fixed-size ring buffer.
+ * Recording is lock-free; {@link #flush()} appends entries recorded since the last flush to a log file that
+ * is rotated once it exceeds its size limit.
+ */
+public class SlowOperationLog {
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<Entry> ring;
+    private final AtomicLong written = new AtomicLong();
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final Logger logger;
+    private long flushedUpTo;
+
+    public SlowOperationLog(long thresholdMillis, int capacity, Path file, long maxFileBytes, int maxFiles, Logger logger) {
+        this.thresholdNanos = Math.max(0L, thresholdMillis) * 1_000_000L;
+        this.ring = new AtomicReferenceArray<>(Math.max(1, capacity));
+        this.file = file;
+        this.maxFileBytes = Math.max(1024L, maxFileBytes);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.logger = logger;
+    }
+
+    public boolean isSlow(long durationNanos) {
+        return durationNanos >= thresholdNanos;
+    }
+
+    public void record(String operation, String fingerprint, String parameters, long durationNanos,
+                       long poolWaitNanos, String caller, boolean success) {
+        long sequence = written.incrementAndGet();
+        ring.set((int) (sequence % ring.length()), new Entry(sequence, System.currentTimeMillis(), operation,
+                fingerprint, parameters, durationNanos, poolWaitNanos, caller, success));
+    }
+
+    /** Newest entries first. */
+    public List<Entry> recent(int limit) {
+        long last = written.get();
+        List<Entry> out = new ArrayList<>();
+        for (long sequence = last; sequence > 0 && sequence > last - ring.length() && out.size() < limit; sequence--) {
+            Entry entry = ring.get((int) (sequence % ring.length()));
+            // Slot kann bereits von einem neueren Eintrag überschrieben sein
+            if (entry != null && entry.sequence() == sequence) {
+                out.add(entry);
+            }
+        }
+        return out;
+    }
+
+    public long total() {
+        return written.get();
+    }
+
+    public long thresholdMillis() {
+        return thresholdNanos / 1_000_000L;
+    }
+
+    public synchronized void flush() {
+        long last = written.get();
+        if (last == flushedUpTo) {
+            return;
+        }
+        List<Entry> entries = recent((int) Math.min(ring.length(), last - flushedUpTo));
+        try {
+            Files.createDirectories(file.getParent());
+            rotateIfNeeded();
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    writer.write(entries.get(i).format());
+                    writer.newLine();
+                }
+            }
+            flushedUpTo = last;
+        } catch (IOException ex) {
+            logger.warning("Failed to write slow operation log: " + ex.getMessage());
+        }
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        if (!Files.exists(file) || Files.size(file) < maxFileBytes) {
+            return;
+        }
+        for (int index = maxFiles - 1; index >= 1; index--) {
+            Path source = index == 1 ? file : rotated(index - 1);
+            if (Files.exists(source)) {
+                Files.move(source, rotated(index), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles == 1) {
+            Files.delete(file);
+        }
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    public record Entry(long sequence, long timestamp, String operation, String fingerprint, String parameters,
+                        long durationNanos, long poolWaitNanos, String caller, boolean success) {
+
+        public double durationMillis() {
+            return durationNanos / 1_000_000.0;
+        }
+
+        public double poolWaitMillis() {
+            return poolWaitNanos / 1_000_000.0;
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%s %s %.2fms wait=%.2fms caller=\"%s\" params={%s} %s%s",
+                    Instant.ofEpochMilli(timestamp), operation, durationMillis(), poolWaitMillis(), caller, parameters,
+                    fingerprint, success ? "" : " FAILED");
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package net.devvoxel.itemDB.ui;
 
 import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.api.ItemView;
+import net.devvoxel.itemDB.jfr.GuiOpenEvent;
+import net.devvoxel.itemDB.managers.ItemManager;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Sound;
@@ -44,6 +47,9 @@ public class ItemsGui implements Listener {
     }
 
     public void open(Player player, int page) {
+        GuiOpenEvent event = new GuiOpenEvent();
+        event.begin();
+        long start = System.nanoTime();
         List<String> names = plugin.items().keys();
         int itemsPerPage = ITEMS_PER_ROW * (ROWS - 2);
         int totalPages = Math.max(1, (int) Math.ceil(names.size() / (double) itemsPerPage));
@@ -63,17 +69,15 @@ public class ItemsGui implements Listener {
             }
 
             String name = names.get(nameIndex);
-            ItemStack item = plugin.items().get(name);
-            if (item == null) {
+            ItemStack display = plugin.items().view(name).map(ItemView::copy).orElse(null);
+            if (display == null) {
                 continue;
             }
 
-            ItemStack display = item.clone();
             ItemMeta meta = display.getItemMeta();
             if (meta != null) {
                 meta.setDisplayName("§f" + name);
-                meta.setLore(plugin.messages().getList("gui-lore")
-                        .stream().map(s -> s.replace("{name}", name)).toList());
+                meta.setLore(plugin.messages().formatList("gui-lore", "name", name));
                 display.setItemMeta(meta);
             }
 
@@ -95,6 +99,14 @@ public class ItemsGui implements Listener {
         }
 
         player.openInventory(inv);
+        plugin.metrics().timer("gui.open").recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player.getName();
+            event.page = currentPage;
+            event.items = Math.max(0, Math.min(itemsPerPage, names.size() - startIndex));
+            event.commit();
+        }
     }
 
     private void fillStaticLayout(Inventory inv, Player player) {
@@ -127,20 +139,16 @@ public class ItemsGui implements Listener {
         if (meta instanceof SkullMeta skullMeta) {
             skullMeta.setOwningPlayer(player);
             skullMeta.setDisplayName("§e" + player.getName());
-            List<String> loreTemplate = plugin.messages().getList("gui-player-head-lore");
-            if (!loreTemplate.isEmpty()) {
+            if (!plugin.messages().templates("gui-player-head-lore").isEmpty()) {
                 long lastSync = plugin.items().lastSync();
                 String formattedSync = lastSync > 0
                         ? HEAD_FORMATTER.format(Instant.ofEpochMilli(lastSync))
                         : "-";
-                List<String> lore = loreTemplate.stream()
-                        .map(line -> line
-                                .replace("{player}", player.getName())
-                                .replace("{items}", String.valueOf(plugin.items().size()))
-                                .replace("{database}", plugin.db().type().name().toLowerCase(Locale.ROOT))
-                                .replace("{last_sync}", formattedSync))
-                        .toList();
-                skullMeta.setLore(lore);
+                skullMeta.setLore(plugin.messages().formatList("gui-player-head-lore",
+                        "player", player.getName(),
+                        "items", plugin.items().size(),
+                        "database", plugin.db().type().name().toLowerCase(Locale.ROOT),
+                        "last_sync", formattedSync));
             }
             head.setItemMeta(skullMeta);
         }
@@ -223,15 +231,17 @@ public class ItemsGui implements Listener {
         if (name == null || name.isBlank()) return;
         name = name.replace("§f", "").trim();
 
-        ItemStack dbItem = plugin.items().get(name);
-        if (dbItem == null) {
-            p.sendMessage(plugin.messages().get("item-not-found").replace("{name}", name));
+        ItemManager.GiveResult result = plugin.items().give(p, name, 0);
+        if (result == null) {
+            p.sendMessage(plugin.messages().format("item-not-found", "name", name));
             return;
         }
+        if (result.dropped() > 0) {
+            p.sendMessage(plugin.messages().format("item-given-dropped", "amount", result.dropped()));
+        }
 
-        p.getInventory().addItem(dbItem.clone());
         p.playSound(p.getLocation(), Sound.ENTITY_ITEM_PICKUP, 0.8f, 1.2f);
-        p.sendMessage(plugin.messages().get("item-given-self").replace("{name}", name));
+        p.sendMessage(plugin.messages().format("item-given-self", "name", name));
     }
 
     private static class GuiHolder implements InventoryHolder {
@@ -0,0 +1,405 @@
+package net.devvoxel.itemDB.webhook;
+
+import net.devvoxel.itemDB.ItemDB;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends webhook messages from one background thread. Events are written to a {@link WebhookOutbox} file
+ * first, so nothing is lost while Discord is unreachable or the server restarts. The drainer waits
+ * {@code BatchWindowMillis} after an event, merges everything open for the same URL into as few Discord
+ * messages as the length limit allows and posts them over a shared {@link HttpClient}. Delivered messages
+ * are acknowledged in the outbox; failed URLs are retried with exponential backoff, HTTP 429 after
+ * {@code Retry-After}. Messages still undelivered after {@code MaxMessageAgeHours} are discarded. When the
+ * outbox is full, new events are either dropped or counted and summarised in the next message for their URL.
+ */
+public class WebhookDispatcher {
+
+    // Discord lehnt Nachrichten mit mehr als 2000 Zeichen ab
+    private static final int MAX_CONTENT_LENGTH = 2000;
+    private static final long BASE_BACKOFF_MILLIS = 1000L;
+    private static final long MAX_RETRY_AFTER_MILLIS = 60_000L;
+    private static final Pattern RETRY_AFTER_BODY = Pattern.compile("\"retry_after\"\\s*:\\s*([0-9.]+)");
+
+    public enum OverflowPolicy { DROP, MERGE }
+
+    private enum Outcome { DELIVERED, REJECTED, RETRY }
+
+    private final Logger logger;
+    private final WebhookOutbox outbox;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long batchWindowMillis;
+    private final int maxLinesPerMessage;
+    private final long maxBackoffMillis;
+    private final long maxAgeMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final Map<String, AtomicLong> overflowed = new ConcurrentHashMap<>();
+    // nur vom Drainer-Thread benutzt
+    private final Map<String, Backoff> backoffs = new HashMap<>();
+    private final Object signal = new Object();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running = true;
+    private final Thread thread;
+
+    public WebhookDispatcher(ItemDB plugin, ConfigurationSection cfg) {
+        this(plugin.getDataFolder().toPath().resolve("webhook-outbox.log"), plugin.getLogger(), cfg);
+    }
+
+    WebhookDispatcher(Path outboxFile, Logger logger, ConfigurationSection cfg) {
+        this.logger = logger;
+        this.capacity = Math.max(1, cfg == null ? 1000 : cfg.getInt("QueueCapacity", 1000));
+        this.batchWindowMillis = Math.max(0L, cfg == null ? 2000L : cfg.getLong("BatchWindowMillis", 2000L));
+        this.maxLinesPerMessage = Math.max(1, cfg == null ? 20 : cfg.getInt("MaxLinesPerMessage", 20));
+        this.maxBackoffMillis = Math.max(1L, cfg == null ? 300L : cfg.getLong("MaxBackoffSeconds", 300L)) * 1000L;
+        this.maxAgeMillis = Math.max(1L, cfg == null ? 24L : cfg.getLong("MaxMessageAgeHours", 24L)) * 3_600_000L;
+        this.overflowPolicy = parsePolicy(cfg == null ? null : cfg.getString("OverflowPolicy"));
+        this.outbox = new WebhookOutbox(outboxFile, logger, 256);
+        try {
+            outbox.open();
+            if (outbox.size() > 0) {
+                logger.info(outbox.size() + " undelivered webhook messages found, resending.");
+            }
+        } catch (IOException ex) {
+            logger.warning("Failed to open webhook outbox: " + ex.getMessage());
+        }
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.thread = Thread.ofVirtual().name("ItemDB-Webhooks").start(this::run);
+    }
+
+    private OverflowPolicy parsePolicy(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return OverflowPolicy.MERGE;
+        }
+        try {
+            return OverflowPolicy.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            logger.warning("Unknown webhook OverflowPolicy '" + raw + "', using MERGE");
+            return OverflowPolicy.MERGE;
+        }
+    }
+
+    /** Stores {@code content} for {@code url} in the outbox; never waits for the network. */
+    public void submit(String url, String content) {
+        if (!running) {
+            return;
+        }
+        if (outbox.size() >= capacity) {
+            overflow(url);
+            return;
+        }
+        try {
+            outbox.append(url, content);
+        } catch (IOException ex) {
+            logger.warning("Failed to write webhook outbox: " + ex.getMessage());
+            overflow(url);
+            return;
+        }
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void overflow(String url) {
+        if (overflowPolicy == OverflowPolicy.MERGE) {
+            overflowed.computeIfAbsent(url, ignored -> new AtomicLong()).incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long waitMillis = nextAttemptIn();
+                if (waitMillis > 0) {
+                    synchronized (signal) {
+                        signal.wait(Math.min(waitMillis, 1000L));
+                    }
+                    continue;
+                }
+                if (batchWindowMillis > 0) {
+                    // weitere Ereignisse sammeln, damit z.B. ein Import eine Handvoll Nachrichten statt tausender erzeugt
+                    Thread.sleep(batchWindowMillis);
+                }
+                drain();
+            } catch (InterruptedException ex) {
+                if (!running) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Milliseconds until a URL with open messages may be tried again; {@code Long.MAX_VALUE} when idle. */
+    private long nextAttemptIn() {
+        long now = System.currentTimeMillis();
+        long wait = Long.MAX_VALUE;
+        for (WebhookOutbox.Message message : outbox.pending()) {
+            Backoff backoff = backoffs.get(message.url());
+            long retryAt = backoff == null ? now : backoff.retryAt();
+            wait = Math.min(wait, Math.max(0L, retryAt - now));
+            if (wait == 0) {
+                return 0;
+            }
+        }
+        for (Map.Entry<String, AtomicLong> entry : overflowed.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                Backoff backoff = backoffs.get(entry.getKey());
+                wait = Math.min(wait, backoff == null ? 0L : Math.max(0L, backoff.retryAt() - now));
+            }
+        }
+        return wait;
+    }
+
+    private void drain() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        Map<String, List<WebhookOutbox.Message>> byUrl = new LinkedHashMap<>();
+        List<Long> expired = new ArrayList<>();
+        for (WebhookOutbox.Message message : outbox.pending()) {
+            if (now - message.createdAt() > maxAgeMillis) {
+                expired.add(message.id());
+                continue;
+            }
+            Backoff backoff = backoffs.get(message.url());
+            if (backoff == null || backoff.retryAt() <= now) {
+                byUrl.computeIfAbsent(message.url(), ignored -> new ArrayList<>()).add(message);
+            }
+        }
+        if (!expired.isEmpty()) {
+            // sonst würde eine tote URL das Outbox-File bis zur Kapazität füllen und nie wieder leeren
+            logger.warning("Discarding " + expired.size() + " webhook messages older than "
+                    + TimeUnit.MILLISECONDS.toHours(maxAgeMillis) + "h that could not be delivered");
+            failed.addAndGet(expired.size());
+            acknowledge(expired);
+        }
+        Map<String, Long> overflowCounts = new HashMap<>();
+        overflowed.forEach((url, counter) -> {
+            Backoff backoff = backoffs.get(url);
+            if (backoff != null && backoff.retryAt() > now) {
+                return;
+            }
+            long count = counter.getAndSet(0);
+            if (count > 0) {
+                overflowCounts.put(url, count);
+                byUrl.computeIfAbsent(url, ignored -> new ArrayList<>());
+            }
+        });
+
+        for (Map.Entry<String, List<WebhookOutbox.Message>> entry : byUrl.entrySet()) {
+            String url = entry.getKey();
+            long overflowCount = overflowCounts.getOrDefault(url, 0L);
+            boolean complete = true;
+            for (Batch batch : chunk(entry.getValue(), overflowCount)) {
+                Outcome outcome = send(url, batch.content());
+                if (outcome == Outcome.RETRY) {
+                    retried.incrementAndGet();
+                    complete = false;
+                    break;
+                }
+                backoffs.remove(url);
+                if (outcome == Outcome.DELIVERED) {
+                    sent.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+                acknowledge(batch.ids());
+            }
+            if (overflowCount > 0) {
+                if (complete) {
+                    merged.addAndGet(overflowCount);
+                } else {
+                    overflowed.computeIfAbsent(url, ignored -> new AtomicLong()).addAndGet(overflowCount);
+                }
+            }
+        }
+    }
+
+    private void acknowledge(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            outbox.acknowledge(ids);
+        } catch (IOException ex) {
+            logger.warning("Failed to update webhook outbox: " + ex.getMessage());
+        }
+    }
+
+    private List<Batch> chunk(List<WebhookOutbox.Message> messages, long overflowCount) {
+        List<Batch> batches = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        List<Long> ids = new ArrayList<>();
+        int linesInMessage = 0;
+        List<String> lines = new ArrayList<>();
+        for (WebhookOutbox.Message message : messages) {
+            lines.add(message.content());
+        }
+        if (overflowCount > 0) {
+            lines.add("… and " + overflowCount + " more events (queue full)");
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String trimmed = line.length() > MAX_CONTENT_LENGTH ? line.substring(0, MAX_CONTENT_LENGTH - 1) + "…" : line;
+            if (linesInMessage > 0 && (linesInMessage >= maxLinesPerMessage
+                    || current.length() + 1 + trimmed.length() > MAX_CONTENT_LENGTH)) {
+                batches.add(new Batch(current.toString(), List.copyOf(ids)));
+                current.setLength(0);
+                ids.clear();
+                linesInMessage = 0;
+            }
+            if (linesInMessage > 0) {
+                current.append('\n');
+            }
+            current.append(trimmed);
+            if (i < messages.size()) {
+                ids.add(messages.get(i).id());
+            }
+            linesInMessage++;
+        }
+        if (linesInMessage > 0) {
+            batches.add(new Batch(current.toString(), List.copyOf(ids)));
+        }
+        return batches;
+    }
+
+    private Outcome send(String url, String content) throws InterruptedException {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(toJson(content)))
+                    .build();
+        } catch (IllegalArgumentException ex) {
+            logger.warning("Invalid webhook URL " + url + ": " + ex.getMessage());
+            return Outcome.REJECTED;
+        }
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (status == 429) {
+                rateLimited.incrementAndGet();
+                backoffs.put(url, new Backoff(attemptsFor(url), System.currentTimeMillis() + retryAfterMillis(response)));
+                return Outcome.RETRY;
+            }
+            if (status >= 500) {
+                return retryLater(url, "status " + status);
+            }
+            if (status < 200 || status >= 300) {
+                // 4xx wird auch bei erneutem Versuch nicht angenommen
+                logger.log(Level.WARNING, "Webhook responded with status " + status + " for URL " + url + ", message discarded");
+                return Outcome.REJECTED;
+            }
+            return Outcome.DELIVERED;
+        } catch (IOException ex) {
+            return retryLater(url, ex.getMessage());
+        }
+    }
+
+    private Outcome retryLater(String url, String reason) {
+        int attempts = attemptsFor(url) + 1;
+        long delay = Math.min(maxBackoffMillis, BASE_BACKOFF_MILLIS << Math.min(attempts - 1, 20));
+        backoffs.put(url, new Backoff(attempts, System.currentTimeMillis() + delay));
+        if (attempts == 1) {
+            logger.warning("Failed to send webhook to " + url + " (" + reason + "), retrying with backoff");
+        }
+        return Outcome.RETRY;
+    }
+
+    private int attemptsFor(String url) {
+        Backoff backoff = backoffs.get(url);
+        return backoff == null ? 0 : backoff.attempts();
+    }
+
+    private static long retryAfterMillis(HttpResponse<String> response) {
+        // Header in Sekunden, Discord schickt zusätzlich retry_after im Body
+        String header = response.headers().firstValue("Retry-After").orElse(null);
+        double seconds = 1.0;
+        try {
+            if (header != null) {
+                seconds = Double.parseDouble(header.trim());
+            } else {
+                Matcher matcher = RETRY_AFTER_BODY.matcher(response.body());
+                if (matcher.find()) {
+                    seconds = Double.parseDouble(matcher.group(1));
+                }
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        return Math.min(MAX_RETRY_AFTER_MILLIS, Math.max(100L, (long) (seconds * 1000)));
+    }
+
+    // Gson maskiert auch \r, \t und andere Steuerzeichen aus Item-Namen und Kommentaren
+    static String toJson(String content) {
+        return WebhookOutbox.GSON.toJson(new Payload(content));
+    }
+
+    public Map<String, Number> metrics() {
+        Map<String, Number> out = new LinkedHashMap<>();
+        out.put("webhooks.outbox", outbox.size());
+        out.put("webhooks.sent", sent.get());
+        out.put("webhooks.merged", merged.get());
+        out.put("webhooks.dropped", dropped.get());
+        out.put("webhooks.rate_limited", rateLimited.get());
+        out.put("webhooks.retried", retried.get());
+        out.put("webhooks.failed", failed.get());
+        return out;
+    }
+
+    /** Stops the drainer; undelivered messages stay in the outbox and are sent after the next start. */
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        outbox.close();
+    }
+
+    private record Batch(String content, List<Long> ids) {
+    }
+
+    private record Backoff(int attempts, long retryAt) {
+    }
+
+    /** Request body for Discord, {@code {"content": ...}}. */
+    private record Payload(String content) {
+    }
+}
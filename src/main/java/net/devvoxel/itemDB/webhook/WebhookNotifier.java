@@ -1,28 +1,30 @@
 package net.devvoxel.itemDB.webhook;
 
 import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.DatabaseUnavailableException;
 import org.bukkit.configuration.ConfigurationSection;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
-import java.util.logging.Level;
 
 public class WebhookNotifier {
 
+    // Platzhalter aus älteren config.yml-Versionen, der Host existiert nicht
+    private static final String PLACEHOLDER_URL = "https://discordWebhookUrl";
+
     private final ItemDB plugin;
     private final String changeUrl;
     private final String errorUrl;
+    private final WebhookDispatcher dispatcher;
 
     public WebhookNotifier(ItemDB plugin) {
         this.plugin = plugin;
         ConfigurationSection discord = plugin.getConfig().getConfigurationSection("Webhooks.Discord");
         this.changeUrl = sanitize(discord != null ? discord.getString("OnChange") : null);
         this.errorUrl = sanitize(discord != null ? discord.getString("OnError") : null);
+        this.dispatcher = changeUrl == null && errorUrl == null
+                ? null
+                : new WebhookDispatcher(plugin, plugin.getConfig().getConfigurationSection("Webhooks.Dispatch"));
     }
 
     private String sanitize(String raw) {
@@ -30,7 +32,7 @@ public class WebhookNotifier {
             return null;
         }
         String trimmed = raw.trim();
-        return trimmed.isEmpty() ? null : trimmed;
+        return trimmed.isEmpty() || trimmed.equalsIgnoreCase(PLACEHOLDER_URL) ? null : trimmed;
     }
 
     public void notifyChange(String action, String itemName, String editor, String comment) {
@@ -50,13 +52,17 @@ public class WebhookNotifier {
         if (comment != null && !comment.isBlank()) {
             message.append("- ").append(comment);
         }
-        sendAsync(changeUrl, toJson(message.toString()));
+        dispatcher.submit(changeUrl, message.toString().trim());
     }
 
     public void notifyError(String context, String message, Throwable throwable) {
         if (errorUrl == null && changeUrl == null) {
             return;
         }
+        if (throwable instanceof DatabaseUnavailableException) {
+            // Ausfall wurde beim Öffnen des Circuit Breakers bereits einmal gemeldet
+            return;
+        }
         StringBuilder payload = new StringBuilder();
         payload.append("**[error]** ");
         if (context != null && !context.isBlank()) {
@@ -72,48 +78,35 @@ public class WebhookNotifier {
                     .append(Objects.requireNonNullElse(throwable.getMessage(), "no message"))
                     .append(')');
         }
-        String json = toJson(payload.toString());
-        if (errorUrl != null) {
-            sendAsync(errorUrl, json);
-        } else if (changeUrl != null) {
-            sendAsync(changeUrl, json);
-        }
+        dispatcher.submit(errorUrl != null ? errorUrl : changeUrl, payload.toString());
     }
 
-    private String toJson(String content) {
-        String escaped = content
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n");
-        return "{\"content\":\"" + escaped + "\"}";
+    /**
+     * Informational notice such as a recovered database, posted as {@code [info]} to the error webhook so it
+     * follows the error it resolves.
+     */
+    public void notifyInfo(String context, String message) {
+        if (errorUrl == null && changeUrl == null) {
+            return;
+        }
+        StringBuilder payload = new StringBuilder();
+        payload.append("**[info]** ");
+        if (context != null && !context.isBlank()) {
+            payload.append(context).append(':').append(' ');
+        }
+        if (message != null && !message.isBlank()) {
+            payload.append(message);
+        }
+        dispatcher.submit(errorUrl != null ? errorUrl : changeUrl, payload.toString().trim());
     }
 
-    private void sendAsync(String url, String payload) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                post(url, payload);
-            } catch (IOException ex) {
-                plugin.getLogger().log(Level.WARNING, "Failed to send webhook to " + url + ": " + ex.getMessage());
-            }
-        });
+    public Map<String, Number> metrics() {
+        return dispatcher == null ? Map.of() : dispatcher.metrics();
     }
 
-    private void post(String target, String payload) throws IOException {
-        HttpURLConnection connection = (HttpURLConnection) new URL(target).openConnection();
-        connection.setDoOutput(true);
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Content-Type", "application/json");
-        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
-        connection.setRequestProperty("Content-Length", String.valueOf(data.length));
-
-        try (OutputStream os = connection.getOutputStream()) {
-            os.write(data);
-        }
-
-        int response = connection.getResponseCode();
-        if (response < 200 || response >= 300) {
-            plugin.getLogger().log(Level.WARNING, "Webhook responded with status " + response + " for URL " + target);
+    public void close() {
+        if (dispatcher != null) {
+            dispatcher.close();
         }
-        connection.disconnect();
     }
 }
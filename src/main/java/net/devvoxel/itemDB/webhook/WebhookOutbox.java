@@ -0,0 +1,136 @@
+package net.devvoxel.itemDB.webhook;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Append-only file of webhook messages that have not been delivered yet. A message line is written when
+ * the event is submitted and an acknowledgement line once it was delivered (or permanently rejected).
+ * The file is rewritten with only the open messages once enough acknowledgements piled up.
+ */
+class WebhookOutbox {
+
+    static final Gson GSON = new Gson();
+
+    private final Path file;
+    private final Logger logger;
+    private final int compactAfter;
+    private final Map<Long, Message> pending = new LinkedHashMap<>();
+    private BufferedWriter writer;
+    private long lastId;
+    private int acknowledgedSinceCompaction;
+
+    WebhookOutbox(Path file, Logger logger, int compactAfter) {
+        this.file = file;
+        this.logger = logger;
+        this.compactAfter = Math.max(1, compactAfter);
+    }
+
+    synchronized void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        if (Files.isRegularFile(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Line parsed = GSON.fromJson(line, Line.class);
+                    lastId = Math.max(lastId, parsed.id());
+                    if (parsed.ack()) {
+                        pending.remove(parsed.id());
+                    } else {
+                        pending.put(parsed.id(), new Message(parsed.id(), parsed.url(), parsed.content(), parsed.createdAt()));
+                    }
+                } catch (JsonParseException ex) {
+                    logger.warning("Ignoring unreadable webhook outbox line: " + ex.getMessage());
+                }
+            }
+        }
+        compact();
+    }
+
+    synchronized Message append(String url, String content) throws IOException {
+        Message message = new Message(lastId + 1, url, content, System.currentTimeMillis());
+        write(new Line(message.id(), false, url, content, message.createdAt()));
+        lastId = message.id();
+        pending.put(message.id(), message);
+        return message;
+    }
+
+    synchronized void acknowledge(Collection<Long> ids) throws IOException {
+        for (Long id : ids) {
+            if (pending.remove(id) != null) {
+                write(new Line(id, true, null, null, 0L));
+                acknowledgedSinceCompaction++;
+            }
+        }
+        if (pending.isEmpty() || acknowledgedSinceCompaction >= compactAfter) {
+            compact();
+        }
+    }
+
+    synchronized List<Message> pending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    private void write(Line line) throws IOException {
+        if (writer == null) {
+            throw new IOException("Webhook outbox is not open");
+        }
+        writer.write(GSON.toJson(line));
+        writer.newLine();
+        writer.flush();
+    }
+
+    private void compact() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Message message : pending.values()) {
+                out.write(GSON.toJson(new Line(message.id(), false, message.url(), message.content(), message.createdAt())));
+                out.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        acknowledgedSinceCompaction = 0;
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            logger.warning("Failed to close webhook outbox: " + ex.getMessage());
+        }
+        writer = null;
+    }
+
+    record Message(long id, String url, String content, long createdAt) {
+    }
+
+    private record Line(long id, boolean ack, String url, String content, long createdAt) {
+    }
+}
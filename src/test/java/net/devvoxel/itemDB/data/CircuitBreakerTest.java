@@ -0,0 +1,194 @@
+package net.devvoxel.itemDB.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** State machine of the breaker with a manually advanced clock. */
+class CircuitBreakerTest {
+
+    private static final long BASE_OPEN_MILLIS = 1_000L;
+    private static final long MAX_OPEN_MILLIS = 3_000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final List<CircuitBreaker.State> reported = new CopyOnWriteArrayList<>();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker(3, BASE_OPEN_MILLIS, MAX_OPEN_MILLIS, reported::add, now::get);
+    }
+
+    @Test
+    void opensAfterThresholdAndRejectsWithoutCalling() throws Exception {
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(List.of(CircuitBreaker.State.OPEN), reported);
+        assertEquals(1L, breaker.openedCount());
+
+        AtomicInteger calls = new AtomicInteger();
+        now.addAndGet(BASE_OPEN_MILLIS - 1L);
+        DatabaseUnavailableException rejected = assertThrows(DatabaseUnavailableException.class,
+                () -> breaker.call(calls::incrementAndGet));
+        assertEquals(now.get() + 1L, rejected.retryAt());
+        assertEquals(0, calls.get());
+        assertEquals(1L, breaker.rejectedCount());
+    }
+
+    @Test
+    void successfulProbeClosesTheBreaker() throws Exception {
+        fail(3);
+        now.addAndGet(BASE_OPEN_MILLIS);
+
+        assertEquals("ok", breaker.call(() -> {
+            assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+            return "ok";
+        }));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.CLOSED), reported);
+
+        // Zähler ist zurückgesetzt
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void failedProbeReopensWithDoubledWaitUpToTheMaximum() throws Exception {
+        fail(3);
+        now.addAndGet(BASE_OPEN_MILLIS);
+
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertRejectedFor(2 * BASE_OPEN_MILLIS);
+
+        fail(1);
+        assertRejectedFor(MAX_OPEN_MILLIS);
+        fail(1);
+        assertRejectedFor(MAX_OPEN_MILLIS);
+
+        // erneutes Öffnen nach einem Probe wird nicht gemeldet
+        assertEquals(List.of(CircuitBreaker.State.OPEN), reported);
+        assertEquals(4L, breaker.openedCount());
+
+        breaker.call(() -> null);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        fail(3);
+        assertRejectedFor(BASE_OPEN_MILLIS);
+    }
+
+    @Test
+    void answersFromTheDatabaseCountAsSuccess() throws Exception {
+        fail(2);
+        assertThrows(SQLIntegrityConstraintViolationException.class, () -> breaker.call(() -> {
+            throw new SQLIntegrityConstraintViolationException("duplicate", "23000");
+        }));
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        fail(1);
+        now.addAndGet(BASE_OPEN_MILLIS);
+        assertThrows(SQLException.class, () -> breaker.call(() -> {
+            throw new SQLException("syntax error", "42000");
+        }));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.CLOSED), reported);
+    }
+
+    @Test
+    void onlyOneProbeRunsUnderConcurrentCalls() throws Exception {
+        fail(3);
+        now.addAndGet(BASE_OPEN_MILLIS);
+
+        CountDownLatch probeRunning = new CountDownLatch(1);
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<Integer> probe = executor.submit(() -> breaker.call(() -> {
+                calls.incrementAndGet();
+                probeRunning.countDown();
+                await(releaseProbe);
+                return 1;
+            }));
+            await(probeRunning);
+
+            List<Future<Integer>> others = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                others.add(executor.submit(() -> breaker.call(calls::incrementAndGet)));
+            }
+            for (Future<Integer> other : others) {
+                Exception ex = assertThrows(Exception.class, () -> other.get(5, TimeUnit.SECONDS));
+                assertTrue(ex.getCause() instanceof DatabaseUnavailableException, String.valueOf(ex.getCause()));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+            releaseProbe.countDown();
+            assertEquals(Integer.valueOf(1), probe.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(16L, breaker.rejectedCount());
+        assertEquals(Integer.valueOf(2), breaker.call(calls::incrementAndGet));
+    }
+
+    @Test
+    void listenerRunsOutsideTheLock() throws Exception {
+        List<Boolean> locked = new CopyOnWriteArrayList<>();
+        breaker = new CircuitBreaker(1, BASE_OPEN_MILLIS, MAX_OPEN_MILLIS,
+                state -> locked.add(Thread.holdsLock(breaker)), now::get);
+        fail(1);
+        now.addAndGet(BASE_OPEN_MILLIS);
+        breaker.call(() -> null);
+        assertEquals(List.of(false, false), locked);
+        assertFalse(breaker.isOpen());
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThrows(SQLTransientConnectionException.class, () -> breaker.call(() -> {
+                throw new SQLTransientConnectionException("connection refused", "08001");
+            }));
+        }
+    }
+
+    // abgewiesen bis kurz vor Ablauf, danach ist der nächste Aufruf der Probe
+    private void assertRejectedFor(long openMillis) {
+        now.addAndGet(openMillis - 1L);
+        assertThrows(DatabaseUnavailableException.class, () -> breaker.call(() -> null));
+        now.addAndGet(1L);
+    }
+
+    private static void await(CountDownLatch latch) throws SQLException {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new SQLException("timed out");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ex);
+        }
+    }
+}
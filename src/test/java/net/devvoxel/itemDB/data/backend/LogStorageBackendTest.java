@@ -0,0 +1,218 @@
+package net.devvoxel.itemDB.data.backend;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import net.devvoxel.itemDB.data.ItemConflictException;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.data.ItemSerializer;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogStorageBackendTest {
+
+    private static final int MIB = 1024 * 1024;
+    private static final int REPLAY_WINDOW = 64 * MIB;
+    private static final Logger LOGGER = Logger.getLogger("LogStorageBackendTest");
+
+    @TempDir
+    Path folder;
+
+    private final List<LogStorageBackend> opened = new ArrayList<>();
+
+    @BeforeAll
+    static void mockServer() {
+        MockBukkit.mock();
+    }
+
+    @AfterAll
+    static void unmockServer() {
+        MockBukkit.unmock();
+    }
+
+    @AfterEach
+    void closeBackends() {
+        opened.forEach(LogStorageBackend::close);
+    }
+
+    @Test
+    void conditionalSaveRejectsStaleSequence() throws Exception {
+        LogStorageBackend backend = open(REPLAY_WINDOW);
+        long first = backend.saveItem(record("sword", ""), nbt(), "alice", null);
+        long second = backend.saveItemIfUnchanged(record("sword", "v2"), first, nbt(), "alice", null);
+
+        assertTrue(second > first);
+        assertThrows(ItemConflictException.class,
+                () -> backend.saveItemIfUnchanged(record("sword", "v3"), first, nbt(), "bob", null));
+        assertThrows(ItemConflictException.class,
+                () -> backend.saveItemIfUnchanged(record("missing", ""), 1L, nbt(), "bob", null));
+
+        backend.markDeleted(record("sword", ""), System.currentTimeMillis(), nbt(), "alice", null);
+        assertThrows(ItemConflictException.class,
+                () -> backend.saveItemIfUnchanged(record("sword", "v4"), backend.currentSequence(), nbt(), "bob", null));
+        assertEquals(3, backend.fetchHistory("sword", 0).size());
+    }
+
+    @Test
+    void recoveryTruncatesTornTail() throws Exception {
+        LogStorageBackend backend = open(REPLAY_WINDOW);
+        backend.saveItem(record("a", ""), nbt(), "alice", null);
+        backend.saveItem(record("b", ""), nbt(), "alice", null);
+        long sequence = backend.currentSequence();
+        backend.close();
+
+        Path segment = segments().get(segments().size() - 1);
+        long intact = Files.size(segment);
+        // halber Header plus Müll, wie nach einem Absturz mitten im Schreiben
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 1, 0, 7, 7, 7, 7, 7, 7, 7}));
+        }
+
+        LogStorageBackend reopened = open(REPLAY_WINDOW);
+        assertEquals(sequence, reopened.currentSequence());
+        assertEquals(intact, Files.size(segment));
+        assertEquals(2, reopened.loadAllItems().size());
+
+        reopened.saveItem(record("c", ""), nbt(), "alice", null);
+        reopened.close();
+        assertEquals(3, open(REPLAY_WINDOW).loadAllItems().size());
+    }
+
+    @Test
+    void compactionReclaimsSupersededItemsAndSplitsSegments() throws Exception {
+        LogStorageBackend backend = open(REPLAY_WINDOW);
+        String padding = "x".repeat(32 * 1024);
+        // 40 lebende Items zu je 32 KiB passen nicht in ein 1-MiB-Segment
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 40; i++) {
+                backend.saveItem(record("item" + i, padding + round), nbt(), "alice", "round " + round);
+            }
+        }
+        long sequence = backend.currentSequence();
+
+        assertTrue(backend.compactIfWorthwhile());
+        for (Path segment : segments()) {
+            assertTrue(Files.size(segment) <= MIB, segment + " exceeds the segment size");
+        }
+        // zwei kompaktierte Segmente plus das neue aktive
+        assertTrue(segments().size() >= 3);
+        assertFalse(backend.compactIfWorthwhile());
+        assertEquals(2, backend.fetchHistory("item7", 0).size());
+        backend.close();
+
+        LogStorageBackend reopened = open(REPLAY_WINDOW);
+        assertEquals(sequence, reopened.currentSequence());
+        assertEquals(40, reopened.loadAllItems().size());
+        assertTrue(reopened.loadAllItems().stream().allMatch(item -> item.displayName().equals(padding + 1)));
+        assertEquals("round 0", reopened.fetchVersion("item3", 1).orElseThrow().comment());
+        assertEquals(2, reopened.fetchHistory("item39", 0).size());
+    }
+
+    @Test
+    void crashDuringCompactionReplaysEveryEntryOnce() throws Exception {
+        LogStorageBackend backend = open(REPLAY_WINDOW);
+        String padding = "y".repeat(16 * 1024);
+        for (int round = 0; round < 12; round++) {
+            backend.saveItem(record("a", padding + round), nbt(), "alice", null);
+        }
+        backend.saveItem(record("b", ""), nbt(), "alice", null);
+        long sequence = backend.currentSequence();
+        backend.close();
+
+        Path before = Files.createDirectory(folder.resolve("before"));
+        List<Path> original = segments();
+        for (Path segment : original) {
+            Files.copy(segment, before.resolve(segment.getFileName()));
+        }
+
+        LogStorageBackend compacting = open(REPLAY_WINDOW);
+        assertTrue(compacting.compactIfWorthwhile());
+        compacting.close();
+
+        // Absturz nach dem Umbenennen, bevor die alten Segmente gelöscht waren; dazu ein halb geschriebener Output
+        for (Path segment : original) {
+            Files.copy(before.resolve(segment.getFileName()), segment, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Path unfinished = storage().resolve("segment-00000099.compact");
+        Files.write(unfinished, new byte[]{1, 2, 3});
+
+        LogStorageBackend reopened = open(REPLAY_WINDOW);
+        assertFalse(Files.exists(unfinished));
+        assertEquals(sequence, reopened.currentSequence());
+        assertEquals(2, reopened.loadAllItems().size());
+        assertEquals(12, reopened.fetchHistory("a", 0).size());
+        assertEquals(padding + 11, reopened.fetchChanges(0).stream()
+                .filter(change -> change.key().equals("a")).findFirst().orElseThrow().displayName());
+
+        long next = reopened.saveItemIfUnchanged(record("b", "new"), reopened.fetchChanges(0).stream()
+                .filter(change -> change.key().equals("b")).findFirst().orElseThrow().sequence(), nbt(), "alice", null);
+        assertEquals(sequence + 1, next);
+        assertTrue(reopened.compactIfWorthwhile());
+        assertEquals(2, reopened.fetchHistory("b", 0).size());
+    }
+
+    @Test
+    void replayMapsEntriesLargerThanTheWindow() throws Exception {
+        LogStorageBackend backend = open(REPLAY_WINDOW);
+        for (int i = 0; i < 10; i++) {
+            backend.saveItem(record("item" + i, "z".repeat(3000 + i)), nbt(), "alice", null);
+        }
+        backend.close();
+
+        LogStorageBackend reopened = open(1024);
+        assertEquals(10, reopened.loadAllItems().size());
+        assertEquals(10, reopened.currentSequence());
+    }
+
+    private LogStorageBackend open(int replayWindow) throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("LocalDirectory", "storage");
+        config.set("LocalSegmentSizeMb", 1);
+        config.set("LocalCompactionIntervalMinutes", 60);
+        LogStorageBackend backend = new LogStorageBackend(folder, LOGGER, replayWindow);
+        backend.connect(config);
+        opened.add(backend);
+        return backend;
+    }
+
+    private Path storage() {
+        return folder.resolve("storage");
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(storage())) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static ItemRecord record(String key, String displayName) {
+        return new ItemRecord(key, new ItemStack(Material.STONE), displayName.isEmpty() ? null : displayName,
+                List.of(), null, Map.of(), System.currentTimeMillis(), false);
+    }
+
+    private static String nbt() throws IOException {
+        return ItemSerializer.serialize(new ItemStack(Material.STONE));
+    }
+}
@@ -0,0 +1,99 @@
+package net.devvoxel.itemDB.managers;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.Database;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.integration.ExternalItemProvider;
+import net.devvoxel.itemDB.webhook.WebhookNotifier;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Compare-and-set edits racing a write of another server, against a local log store. */
+class ItemManagerConflictTest {
+
+    private Database database;
+    private ItemManager items;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ServerMock server = MockBukkit.mock();
+        PluginDescriptionFile description = new PluginDescriptionFile("ItemDBPremium", "test", ItemDB.class.getName());
+        ItemDB plugin = (ItemDB) server.getPluginManager().loadPlugin(ItemDB.class, description, new Object[0]);
+        FileConfiguration config = plugin.getConfig();
+        config.set("Database.Type", "local");
+        config.set("Database.LocalDirectory", "storage-conflict");
+        config.set("Database.OfflineJournal", false);
+        config.set("Database.CircuitBreaker", false);
+        config.set("Metrics.SlowLog.Enabled", false);
+        Path storage = plugin.getDataFolder().toPath().resolve("storage-conflict");
+        if (Files.isDirectory(storage)) {
+            try (Stream<Path> files = Files.list(storage)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        database = new Database(plugin);
+        database.connect();
+        database.saveItem(record("sword", Material.DIAMOND_SWORD), "remote", null);
+        database.saveItem(record("shield", Material.STONE), "remote", null);
+        items = new ItemManager(plugin, database, new WebhookNotifier(plugin), new ExternalItemProvider(plugin));
+    }
+
+    @AfterEach
+    void tearDown() {
+        items.close();
+        database.close();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void conflictRefreshesOnlyTheContestedItem() throws Exception {
+        long remote = database.saveItem(record("sword", Material.IRON_SWORD), "remote", null);
+        database.saveItem(record("shield", Material.PAPER), "remote", null);
+
+        assertEquals(ItemManager.UpdateResult.CONFLICT,
+                items.updateItem("sword", stack -> new ItemStack(Material.GOLDEN_SWORD), "alice", null));
+
+        ItemRecord sword = items.record("sword").orElseThrow();
+        assertEquals(remote, sword.sequence());
+        assertEquals(Material.IRON_SWORD, sword.item().getType());
+        // der Rest kommt erst mit dem nächsten Poll
+        assertEquals(Material.STONE, items.record("shield").orElseThrow().item().getType());
+
+        assertEquals(ItemManager.UpdateResult.UPDATED,
+                items.updateItem("sword", stack -> new ItemStack(Material.GOLDEN_SWORD), "alice", null));
+        assertEquals(1, items.syncChanges());
+        assertEquals(Material.PAPER, items.record("shield").orElseThrow().item().getType());
+        assertEquals(Material.GOLDEN_SWORD, items.record("sword").orElseThrow().item().getType());
+    }
+
+    @Test
+    void conflictWithARemoteDeleteDropsTheItem() throws Exception {
+        ItemRecord stored = items.record("sword").orElseThrow();
+        database.markDeleted(stored, System.currentTimeMillis(), "remote", null);
+
+        assertEquals(ItemManager.UpdateResult.CONFLICT,
+                items.updateItem("sword", stack -> new ItemStack(Material.GOLDEN_SWORD), "alice", null));
+        assertEquals(ItemManager.UpdateResult.NOT_FOUND,
+                items.updateItem("sword", stack -> new ItemStack(Material.GOLDEN_SWORD), "alice", null));
+    }
+
+    private static ItemRecord record(String key, Material material) {
+        return ItemRecord.fromStack(key, new ItemStack(material), System.currentTimeMillis(), false);
+    }
+}
@@ -0,0 +1,165 @@
+package net.devvoxel.itemDB.managers;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.Database;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.data.ItemSerializer;
+import net.devvoxel.itemDB.data.WriteJournal;
+import net.devvoxel.itemDB.integration.ExternalItemProvider;
+import net.devvoxel.itemDB.webhook.WebhookNotifier;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replay of the offline journal against a local log store; the journal is written before the ItemManager
+ * starts, as if the server had been offline.
+ */
+class ItemManagerJournalTest {
+
+    private ItemDB plugin;
+    private Database database;
+    private ItemManager items;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ServerMock server = MockBukkit.mock();
+        PluginDescriptionFile description = new PluginDescriptionFile("ItemDBPremium", "test", ItemDB.class.getName());
+        plugin = (ItemDB) server.getPluginManager().loadPlugin(ItemDB.class, description, new Object[0]);
+        FileConfiguration config = plugin.getConfig();
+        config.set("Database.Type", "local");
+        config.set("Database.LocalDirectory", "storage");
+        config.set("Database.OfflineJournal", true);
+        config.set("Database.CircuitBreaker", false);
+        config.set("Metrics.SlowLog.Enabled", false);
+        Files.deleteIfExists(journalFile());
+
+        database = new Database(plugin);
+        database.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (items != null) {
+            items.close();
+        }
+        database.close();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void saveBasedOnCurrentSequenceIsWritten() throws Exception {
+        long stored = database.saveItem(record("sword", Material.DIAMOND_SWORD), "remote", null);
+        journal(WriteJournal.Operation.SAVE, "sword", Material.GOLDEN_SWORD, stored);
+
+        startItems();
+        assertEquals(1, items.replayJournal());
+        assertFalse(items.hasPendingWrites());
+
+        ItemRecord current = items.record("sword").orElseThrow();
+        assertTrue(current.sequence() > stored);
+        assertEquals(Material.GOLDEN_SWORD, current.item().getType());
+        assertEquals(2, database.fetchHistory("sword", 0).size());
+    }
+
+    @Test
+    void staleSaveIsDroppedAndTheOtherServersStateKept() throws Exception {
+        long base = database.saveItem(record("sword", Material.DIAMOND_SWORD), "remote", null);
+        journal(WriteJournal.Operation.SAVE, "sword", Material.GOLDEN_SWORD, base);
+        long remote = database.saveItem(record("sword", Material.IRON_SWORD), "remote", null);
+
+        startItems();
+        assertEquals(0, items.replayJournal());
+        assertFalse(items.hasPendingWrites());
+
+        ItemRecord current = items.record("sword").orElseThrow();
+        assertEquals(remote, current.sequence());
+        assertEquals(Material.IRON_SWORD, current.item().getType());
+        assertEquals(2, database.fetchHistory("sword", 0).size());
+    }
+
+    @Test
+    void staleDeleteIsDropped() throws Exception {
+        long base = database.saveItem(record("sword", Material.DIAMOND_SWORD), "remote", null);
+        journal(WriteJournal.Operation.DELETE, "sword", Material.DIAMOND_SWORD, base);
+        database.saveItem(record("sword", Material.IRON_SWORD), "remote", null);
+
+        startItems();
+        assertFalse(items.exists("sword"));
+        assertEquals(0, items.replayJournal());
+
+        assertTrue(items.exists("sword"));
+        assertEquals(1, database.loadAllItems().size());
+    }
+
+    @Test
+    void chainedWritesFollowADeleteAndRecreate() throws Exception {
+        long base = database.saveItem(record("sword", Material.DIAMOND_SWORD), "remote", null);
+        journal(WriteJournal.Operation.DELETE, "sword", Material.DIAMOND_SWORD, base);
+        journal(WriteJournal.Operation.SAVE, "sword", Material.GOLDEN_SWORD, 0L);
+        journal(WriteJournal.Operation.UPDATE, "sword", Material.IRON_SWORD, WriteJournal.CHAINED);
+
+        startItems();
+        assertEquals(3, items.replayJournal());
+
+        assertEquals(Material.IRON_SWORD, items.record("sword").orElseThrow().item().getType());
+        assertEquals(4, database.fetchHistory("sword", 0).size());
+    }
+
+    @Test
+    void editsQueuedBehindTheJournalCarryTheirBase() throws Exception {
+        database.saveItem(record("sword", Material.DIAMOND_SWORD), "remote", null);
+        database.saveItem(record("shield", Material.STONE), "remote", null);
+        journal(WriteJournal.Operation.SAVE, "apple", Material.PAPER, 0L);
+
+        startItems();
+        // das Journal ist nicht leer, also landen beide Änderungen dahinter
+        assertTrue(items.replace("sword", new ItemStack(Material.GOLDEN_SWORD), "alice", null));
+        assertTrue(items.remove("shield", "alice"));
+        long remote = database.saveItem(record("sword", Material.IRON_SWORD), "remote", null);
+
+        assertEquals(2, items.replayJournal());
+        assertEquals(remote, items.record("sword").orElseThrow().sequence());
+        assertFalse(items.exists("shield"));
+        assertTrue(items.exists("apple"));
+        assertEquals(List.of("apple", "sword"), items.keys());
+    }
+
+    private void startItems() {
+        WebhookNotifier webhooks = new WebhookNotifier(plugin);
+        items = new ItemManager(plugin, database, webhooks, new ExternalItemProvider(plugin));
+    }
+
+    private void journal(WriteJournal.Operation operation, String key, Material material, long expectedSequence) throws Exception {
+        WriteJournal journal = new WriteJournal(journalFile(), plugin.getLogger());
+        journal.open();
+        try {
+            journal.append(operation, key, ItemSerializer.serialize(new ItemStack(material)), expectedSequence,
+                    "alice", null, System.currentTimeMillis());
+        } finally {
+            journal.close();
+        }
+    }
+
+    private Path journalFile() {
+        return plugin.getDataFolder().toPath().resolve("journal.log");
+    }
+
+    private static ItemRecord record(String key, Material material) {
+        return ItemRecord.fromStack(key, new ItemStack(material), System.currentTimeMillis(), false);
+    }
+}
@@ -0,0 +1,78 @@
+package net.devvoxel.itemDB.managers;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import net.devvoxel.itemDB.ItemDB;
+import net.devvoxel.itemDB.data.Database;
+import net.devvoxel.itemDB.data.ItemRecord;
+import net.devvoxel.itemDB.integration.ExternalItemProvider;
+import net.devvoxel.itemDB.webhook.WebhookNotifier;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Case-insensitive cache lookups, with and without the lower-case copy. */
+class ItemManagerLookupTest {
+
+    private Database database;
+    private ItemManager items;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ServerMock server = MockBukkit.mock();
+        PluginDescriptionFile description = new PluginDescriptionFile("ItemDBPremium", "test", ItemDB.class.getName());
+        ItemDB plugin = (ItemDB) server.getPluginManager().loadPlugin(ItemDB.class, description, new Object[0]);
+        FileConfiguration config = plugin.getConfig();
+        config.set("Database.Type", "local");
+        config.set("Database.OfflineJournal", false);
+        config.set("Database.CircuitBreaker", false);
+        config.set("Metrics.SlowLog.Enabled", false);
+
+        database = new Database(plugin);
+        database.connect();
+        for (String key : new String[]{"weapons:fire_sword", "schwert_ä", "plain"}) {
+            database.saveItem(ItemRecord.fromStack(key, new ItemStack(Material.DIAMOND_SWORD), 1L, false), "alice", null);
+        }
+        items = new ItemManager(plugin, database, new WebhookNotifier(plugin), new ExternalItemProvider(plugin));
+    }
+
+    @AfterEach
+    void tearDown() {
+        items.close();
+        database.close();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void findsItemsInAnyCase() {
+        assertTrue(items.exists("weapons:fire_sword"));
+        assertTrue(items.exists("Weapons:Fire_Sword"));
+        assertTrue(items.exists("WEAPONS:FIRE_SWORD"));
+        assertEquals("weapons:fire_sword", items.record("Weapons:FIRE_sword").orElseThrow().key());
+        assertTrue(items.exists("SCHWERT_Ä"));
+        assertTrue(items.exists("Plain"));
+    }
+
+    @Test
+    void doesNotMatchDifferentKeys() {
+        assertFalse(items.exists("PLAIN_"));
+        assertFalse(items.exists("PLAI"));
+        assertFalse(items.exists("PLAIM"));
+        assertFalse(items.exists("weapons:fire-sword"));
+        assertTrue(items.record("Unknown").isEmpty());
+    }
+
+    @Test
+    void countsNamespacesInAnyCase() {
+        assertEquals(1, items.namespaceCount("WEAPONS"));
+        assertEquals(2, items.namespaceCount(""));
+    }
+}
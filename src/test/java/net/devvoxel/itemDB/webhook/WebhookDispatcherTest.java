@@ -0,0 +1,203 @@
+package net.devvoxel.itemDB.webhook;
+
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Dispatcher against a local HTTP stub standing in for Discord. */
+class WebhookDispatcherTest {
+
+    private static final Logger LOGGER = Logger.getLogger("WebhookDispatcherTest");
+    private static final long TIMEOUT_MILLIS = 10_000L;
+
+    @TempDir
+    Path folder;
+
+    private HttpServer server;
+    private String url;
+    // Antworten der Reihe nach, danach 204
+    private final Queue<Response> responses = new ConcurrentLinkedQueue<>();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", this::handle);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+    }
+
+    @AfterEach
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void deliversBatchedEventsAndEmptiesTheOutbox() throws Exception {
+        dispatcher = start(config(500L, 1000));
+        dispatcher.submit(url, "**[create]** `a`");
+        dispatcher.submit(url, "**[update]** `b`\r\n\ttab");
+        dispatcher.submit(url, "**[delete]** `c`");
+
+        await(() -> metric("webhooks.sent") == 1 && metric("webhooks.outbox") == 0);
+        assertEquals(1, requests.size());
+        assertEquals("**[create]** `a`\n**[update]** `b`\r\n\ttab\n**[delete]** `c`", requests.get(0).content());
+        assertEquals(List.of(), lines());
+    }
+
+    @Test
+    void openMessagesAreSentAfterRestart() throws Exception {
+        responses.add(new Response(500, null));
+        dispatcher = start(config(0L, 1000));
+        dispatcher.submit(url, "before restart");
+        await(() -> metric("webhooks.retried") >= 1);
+        dispatcher.close();
+        assertEquals(1, lines().size());
+
+        dispatcher = start(config(0L, 1000));
+        await(() -> metric("webhooks.sent") == 1 && metric("webhooks.outbox") == 0);
+        assertEquals("before restart", requests.get(requests.size() - 1).content());
+        assertEquals(List.of(), lines());
+    }
+
+    @Test
+    void rateLimitWaitsForRetryAfter() throws Exception {
+        responses.add(new Response(429, "1"));
+        dispatcher = start(config(0L, 1000));
+        dispatcher.submit(url, "limited");
+
+        await(() -> metric("webhooks.sent") == 1);
+        assertEquals(2, requests.size());
+        assertEquals(1L, metric("webhooks.rate_limited"));
+        long waited = requests.get(1).receivedAt() - requests.get(0).receivedAt();
+        assertTrue(waited >= 900L, "retried after " + waited + " ms");
+    }
+
+    @Test
+    void clientErrorIsDroppedWithoutRetry() throws Exception {
+        responses.add(new Response(400, null));
+        dispatcher = start(config(0L, 1000));
+        dispatcher.submit(url, "rejected");
+
+        await(() -> metric("webhooks.failed") == 1 && metric("webhooks.outbox") == 0);
+        Thread.sleep(1500L);
+        assertEquals(1, requests.size());
+        assertEquals(0L, metric("webhooks.retried"));
+    }
+
+    @Test
+    void serverErrorBacksOffBeforeRetrying() throws Exception {
+        responses.add(new Response(503, null));
+        responses.add(new Response(503, null));
+        dispatcher = start(config(0L, 1000));
+        dispatcher.submit(url, "flaky");
+
+        await(() -> metric("webhooks.sent") == 1);
+        assertEquals(3, requests.size());
+        assertEquals(2L, metric("webhooks.retried"));
+        // 1 s, dann 2 s
+        assertTrue(requests.get(1).receivedAt() - requests.get(0).receivedAt() >= 900L);
+        assertTrue(requests.get(2).receivedAt() - requests.get(1).receivedAt() >= 1900L);
+    }
+
+    @Test
+    void overflowIsSummarisedInTheNextMessage() throws Exception {
+        responses.add(new Response(503, null));
+        dispatcher = start(config(300L, 2));
+        for (int i = 0; i < 5; i++) {
+            dispatcher.submit(url, "event " + i);
+        }
+
+        await(() -> metric("webhooks.sent") == 1);
+        assertEquals("event 0\nevent 1\n… and 3 more events (queue full)", requests.get(requests.size() - 1).content());
+        assertEquals(3L, metric("webhooks.merged"));
+        assertEquals(0L, metric("webhooks.outbox"));
+    }
+
+    @Test
+    void expiredMessagesAreDiscarded() throws Exception {
+        Files.write(folder.resolve("webhook-outbox.log"), List.of(
+                "{\"id\":1,\"ack\":false,\"url\":\"" + url + "\",\"content\":\"stale\",\"createdAt\":1}"),
+                StandardCharsets.UTF_8);
+        dispatcher = start(config(0L, 1000));
+        dispatcher.submit(url, "fresh");
+
+        await(() -> metric("webhooks.sent") == 1 && metric("webhooks.outbox") == 0);
+        assertEquals(1L, metric("webhooks.failed"));
+        assertEquals(List.of("fresh"), requests.stream().map(Request::content).toList());
+    }
+
+    private WebhookDispatcher start(YamlConfiguration config) {
+        return new WebhookDispatcher(folder.resolve("webhook-outbox.log"), LOGGER, config);
+    }
+
+    private static YamlConfiguration config(long batchWindowMillis, int capacity) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("BatchWindowMillis", batchWindowMillis);
+        config.set("QueueCapacity", capacity);
+        config.set("OverflowPolicy", "merge");
+        config.set("MaxBackoffSeconds", 60);
+        return config;
+    }
+
+    private long metric(String name) {
+        return dispatcher.metrics().get(name).longValue();
+    }
+
+    private List<String> lines() throws IOException {
+        return Files.readAllLines(folder.resolve("webhook-outbox.log"), StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isBlank())
+                .toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not reached in time");
+            Thread.sleep(20L);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requests.add(new Request(JsonParser.parseString(body).getAsJsonObject().get("content").getAsString(),
+                System.currentTimeMillis()));
+        Response response = responses.poll();
+        int status = response == null ? 204 : response.status();
+        if (response != null && response.retryAfter() != null) {
+            exchange.getResponseHeaders().add("Retry-After", response.retryAfter());
+        }
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private record Response(int status, String retryAfter) {
+    }
+
+    private record Request(String content, long receivedAt) {
+    }
+}
@@ -0,0 +1,83 @@
+package net.devvoxel.itemDB.webhook;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WebhookOutboxTest {
+
+    private static final Logger LOGGER = Logger.getLogger("WebhookOutboxTest");
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void acknowledgedMessagesAreGoneAfterReopen() throws Exception {
+        WebhookOutbox outbox = open(100);
+        WebhookOutbox.Message first = outbox.append("http://hook", "first");
+        outbox.append("http://hook", "second");
+        WebhookOutbox.Message third = outbox.append("http://other", "third");
+        outbox.acknowledge(List.of(first.id()));
+        outbox.close();
+
+        WebhookOutbox reopened = open(100);
+        assertEquals(List.of("second", "third"), reopened.pending().stream().map(WebhookOutbox.Message::content).toList());
+        // neue Ids setzen hinter den bereits vergebenen fort
+        assertEquals(third.id() + 1, reopened.append("http://hook", "fourth").id());
+        reopened.close();
+    }
+
+    @Test
+    void compactionKeepsOnlyOpenMessages() throws Exception {
+        WebhookOutbox outbox = open(2);
+        WebhookOutbox.Message first = outbox.append("http://hook", "first");
+        WebhookOutbox.Message second = outbox.append("http://hook", "second");
+        outbox.append("http://hook", "third");
+        assertEquals(3, lines().size());
+
+        outbox.acknowledge(List.of(first.id(), second.id()));
+        List<String> lines = lines();
+        assertEquals(1, lines.size());
+        assertEquals(1, outbox.size());
+        assertEquals("third", WebhookOutbox.GSON.fromJson(lines.get(0), WebhookOutbox.Message.class).content());
+
+        outbox.acknowledge(List.of(outbox.pending().get(0).id()));
+        assertEquals(List.of(), lines());
+        outbox.close();
+    }
+
+    @Test
+    void unreadableLinesAreSkipped() throws Exception {
+        Files.write(file(), List.of(
+                "{\"id\":1,\"ack\":false,\"url\":\"http://hook\",\"content\":\"kept\",\"createdAt\":5}",
+                "{kaputt",
+                "{\"id\":2,\"ack\":false,\"url\":\"http://hook\",\"content\":\"acked\",\"createdAt\":5}",
+                "{\"id\":2,\"ack\":true,\"createdAt\":0}"), StandardCharsets.UTF_8);
+
+        WebhookOutbox outbox = open(100);
+        assertEquals(List.of("kept"), outbox.pending().stream().map(WebhookOutbox.Message::content).toList());
+        assertEquals(5L, outbox.pending().get(0).createdAt());
+        outbox.close();
+    }
+
+    private WebhookOutbox open(int compactAfter) throws Exception {
+        WebhookOutbox outbox = new WebhookOutbox(file(), LOGGER, compactAfter);
+        outbox.open();
+        return outbox;
+    }
+
+    private Path file() {
+        return folder.resolve("webhook-outbox.log");
+    }
+
+    private List<String> lines() throws Exception {
+        return Files.readAllLines(file(), StandardCharsets.UTF_8).stream().filter(line -> !line.isBlank()).toList();
+    }
+}